@@ -1,27 +1,128 @@
 import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
 import java.util.stream.Stream;
 
 public class Backend implements BackendInterface {
 
+  /**
+   * A fully loaded dataset: the graph of buildings, the builder it was built from, the total
+   * walking time of its paths, and the routes cached for it. The graph is built and prepared
+   * completely before the dataset is published, and its nodes, edges and search strategy are never
+   * changed afterward. Queries on it still build search structures lazily, which DijkstraGraph
+   * publishes safely, and share the route cache, whose stripes are locked briefly by each lookup.
+   */
+  private static class Dataset {
+    final DijkstraGraph<String, Double> graph;
+    // kept so that the same data can be built again into a differently prepared graph
+    final GraphBuilder<String, Double> builder;
+    final double totalWalkingTime;
+    // recently computed routes, keyed by start and end building
+    final RouteCache<List<String>, ShortestPathInterface<String, Double>> routeCache;
+
+    Dataset(DijkstraGraph<String, Double> graph, GraphBuilder<String, Double> builder,
+        double totalWalkingTime, int routeCacheCapacity) {
+      this.graph = graph;
+      this.builder = builder;
+      this.totalWalkingTime = totalWalkingTime;
+      this.routeCache = new RouteCache<>(routeCacheCapacity);
+    }
+  }
+
   // Initialize and constructor
-  private DijkstraGraph<String, Double> graph;
-  private double totalWalkingTime = 0.0;
+  // the dataset queries read, replaced as a whole by readData
+  private volatile Dataset dataset;
+  // file the all pairs table is cached in, or null when the table is not used
+  private volatile String allPairsCachePath = null;
+  private final int routeCacheCapacity;
+
+  // number of routes kept in the route cache by default
+  private static final int DEFAULT_ROUTE_CACHE_CAPACITY = 1024;
 
   public Backend() {
-    this.graph = new DijkstraGraph<>(new HashtableMap<>());
+    this(DEFAULT_ROUTE_CACHE_CAPACITY);
+  }
+
+  /**
+   * Constructor for a backend that caches up to routeCacheCapacity recently computed routes
+   *
+   * @param routeCacheCapacity the number of routes to cache, 0 disables the route cache
+   */
+  public Backend(int routeCacheCapacity) {
+    this.routeCacheCapacity = routeCacheCapacity;
+    GraphBuilder<String, Double> empty = new GraphBuilder<>();
+    this.dataset = new Dataset(empty.build(), empty, 0.0, routeCacheCapacity);
+  }
+
+  /**
+   * Answer shortest path queries from a precomputed table of every pair of buildings. The table is
+   * loaded from cachePath when that file was saved for the same data, and is otherwise computed
+   * and saved there, so later starts can skip computing it. The current data is built again into a
+   * new graph that uses the table, and replaces the published dataset once it is ready.
+   *
+   * @param cachePath the file to load the table from and save it to
+   */
+  public synchronized void useAllPairsTable(String cachePath) {
+    this.allPairsCachePath = cachePath;
+    Dataset current = dataset;
+    publish(current.builder, current.totalWalkingTime);
+  }
+
+  /**
+   * Builds a graph from the collected data, prepares it for queries, and publishes it in a new
+   * dataset in one step.
+   *
+   * @param builder          the nodes and edges of the data
+   * @param totalWalkingTime the total walking time of the data's paths
+   */
+  private void publish(GraphBuilder<String, Double> builder, double totalWalkingTime) {
+    DijkstraGraph<String, Double> graph = builder.build();
+    // label the components now, so that queries only ever read the labels
+    graph.components();
+    if (allPairsCachePath != null) {
+      if (graph.getNodeCount() > 0)
+        prepareAllPairsTable(graph);
+      graph.setSearchStrategy(DijkstraGraph.SearchStrategy.ALL_PAIRS);
+    }
+    dataset = new Dataset(graph, builder, totalWalkingTime, routeCacheCapacity);
+  }
+
+  /**
+   * Load the all pairs table from its cache file, or compute it and save it there when the file is
+   * missing or was saved for different data
+   *
+   * @param graph the graph to prepare the table for
+   */
+  private void prepareAllPairsTable(DijkstraGraph<String, Double> graph) {
+    Path path = Paths.get(allPairsCachePath);
+    try {
+      graph.setAllPairsTable(AllPairsTable.load(path, graph.snapshot()));
+    } catch (IOException e) {
+      try {
+        graph.getAllPairsTable().save(path);
+      } catch (IOException saveError) {
+        System.err.println("IOException: " + saveError.getMessage());
+      }
+    }
   }
 
   /**
-   * Implementation of the BackendInterface
+   * Implementation of the BackendInterface. The file is read into a new graph while queries keep
+   * using the previous one, and the new graph replaces it only once it is complete.
    */
   @Override
-  public void readData(String filepath) {
+  public synchronized void readData(String filepath) {
+    // collect every edge first, and build the whole graph from them once the file is read
+    GraphBuilder<String, Double> builder = new GraphBuilder<>();
+    double[] totalWalkingTime = new double[1];
     try (Stream<String> lines = Files.lines(Paths.get(filepath))) {
       lines.forEach(line -> {
         try {
@@ -33,11 +134,8 @@ public class Backend implements BackendInterface {
               String node2 = parts[1].replace("\"", "");
               Double weight = Double.parseDouble(parts[2]);
 
-              graph.insertNode(node1);
-              graph.insertNode(node2);
-              graph.insertEdge(node1, node2, weight);
-              graph.insertEdge(node2, node1, weight);
-              totalWalkingTime += weight; // accumulate total walking time
+              builder.addUndirectedEdge(node1, node2, weight);
+              totalWalkingTime[0] += weight; // accumulate total walking time
             }
           }
         } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
@@ -48,54 +146,149 @@ public class Backend implements BackendInterface {
       System.err.println("IOException: " + e.getMessage());
       throw new RuntimeException("Failed to read file:" + filepath, e);
     }
+    publish(builder, totalWalkingTime[0]);
   }
 
   @Override
   public ShortestPathInterface<String, Double> shortestPath(String start, String end) {
+    // read the dataset once, so the whole query uses the same graph even if readData replaces it
+    Dataset data = dataset;
+    DijkstraGraph<String, Double> graph = data.graph;
     if (!graph.containsNode(start) || !graph.containsNode(end)) {
       return new ShortestPathImplementation(Collections.emptyList(), Collections.emptyList(), 0.0);
     }
 
-    // get the path by calling the shortestPathData method from DijkstraGraph
-    List<String> path = graph.shortestPathData(start, end);
-
-    Double cost = graph.shortestPathCost(start, end);
+    // reuse the route when it was computed since the graph last changed
+    List<String> key = Arrays.asList(start, end);
+    ShortestPathInterface<String, Double> cached = data.routeCache.get(key, graph.getVersion());
+    if (cached != null) {
+      return cached;
+    }
 
-    // create a empty list passing in the weighted of each edge segment
-    // List<Double> walkingTimes = Collections.emptyList();
-    List<Double> walkingTimes = calculateWalkingTimes(path);
+    // get the path, the walking time of each segment and the total cost from a single search,
+    // where buildings that no path connects get an empty path without any search
+    ShortestRoute<String> route = graph.findShortestRoute(start, end);
+    ShortestPathInterface<String, Double> result = route == null
+        ? new ShortestPathImplementation(Collections.emptyList(), Collections.emptyList(), 0.0)
+        : toShortestPath(route);
 
-    // return the instance of ShortestPathImplementation
-    return new ShortestPathImplementation(path, walkingTimes, cost);
+    // cache and return the instance of ShortestPathImplementation, whose lists are read-only views
+    // so the route can be shared by every caller it is served to
+    data.routeCache.put(key, result, graph.getVersion());
+    return result;
   }
 
   /**
-   * Record each edge weight in a list
+   * Copy a route found by the graph into arrays backing a ShortestPathImplementation
    *
-   * @param path
-   * @return
+   * @param route the route to copy
+   * @return the route's buildings, walking times and total walking time
    */
-  private List<Double> calculateWalkingTimes(List<String> path) {
-    List<Double> walkingTimes = new ArrayList<>();
-    if (path != null && path.size() > 1) {
-      for (int i = 0; i < path.size() - 1; i++) {
-        String node1 = path.get(i);
-        String node2 = path.get(i + 1);
-        Double edgeWeight = graph.getEdge(node1, node2);
-        walkingTimes.add(edgeWeight);
+  private ShortestPathInterface<String, Double> toShortestPath(ShortestRoute<String> route) {
+    String[] path = new String[route.getNodeCount()];
+    double[] walkingTimes = new double[path.length - 1];
+    for (int i = 0; i < path.length; i++)
+      path[i] = route.getNode(i);
+    for (int i = 0; i < walkingTimes.length; i++)
+      walkingTimes[i] = route.getSegmentWeight(i);
+    return new ShortestPathImplementation(path, walkingTimes, route.getCost());
+  }
+
+  @Override
+  public List<ShortestPathInterface<String, Double>> alternativePaths(String start, String end,
+      int k) {
+    DijkstraGraph<String, Double> graph = dataset.graph;
+    List<ShortestPathInterface<String, Double>> paths = new ArrayList<>();
+    if (!graph.containsNode(start) || !graph.containsNode(end)) {
+      return paths;
+    }
+    try {
+      for (ShortestRoute<String> route : graph.kShortestPaths(start, end, k))
+        paths.add(toShortestPath(route));
+    } catch (NoSuchElementException e) {
+      // no path connects the buildings, so there are no alternatives either
+    }
+    return paths;
+  }
+
+  @Override
+  public double[][] distanceMatrix(List<String> sources, List<String> targets) {
+    DijkstraGraph<String, Double> graph = dataset.graph;
+    // search only between buildings in the graph, remembering where each one goes in the result
+    List<String> knownSources = new ArrayList<>();
+    List<String> knownTargets = new ArrayList<>();
+    List<Integer> rows = new ArrayList<>();
+    List<Integer> columns = new ArrayList<>();
+    for (int i = 0; i < sources.size(); i++) {
+      if (graph.containsNode(sources.get(i))) {
+        knownSources.add(sources.get(i));
+        rows.add(i);
+      }
+    }
+    for (int j = 0; j < targets.size(); j++) {
+      if (graph.containsNode(targets.get(j))) {
+        knownTargets.add(targets.get(j));
+        columns.add(j);
+      }
+    }
+    double[][] known = graph.distanceMatrix(knownSources, knownTargets);
+
+    // unknown buildings keep an infinite walking time to and from everything
+    double[][] matrix = new double[sources.size()][targets.size()];
+    for (double[] row : matrix)
+      Arrays.fill(row, Double.POSITIVE_INFINITY);
+    for (int r = 0; r < rows.size(); r++)
+      for (int c = 0; c < columns.size(); c++)
+        matrix[rows.get(r)][columns.get(c)] = known[r][c];
+    return matrix;
+  }
+
+  @Override
+  public Map<String, Double> reachableWithin(String start, double seconds) {
+    DijkstraGraph<String, Double> graph = dataset.graph;
+    if (!graph.containsNode(start)) {
+      return Collections.emptyMap();
+    }
+    return graph.reachableWithin(start, seconds);
+  }
+
+  @Override
+  public Map<String, Double> nearestBuildings(String start, int k) {
+    DijkstraGraph<String, Double> graph = dataset.graph;
+    if (!graph.containsNode(start)) {
+      return Collections.emptyMap();
+    }
+    return graph.nearestK(start, k);
+  }
+
+  @Override
+  public ShortestPathInterface<String, Double> nearestOf(String start, List<String> destinations) {
+    DijkstraGraph<String, Double> graph = dataset.graph;
+    if (graph.containsNode(start)) {
+      try {
+        return toShortestPath(graph.nearestOf(start, destinations));
+      } catch (NoSuchElementException e) {
+        // none of the destinations can be reached from start
       }
     }
-    return walkingTimes;
+    return new ShortestPathImplementation(Collections.emptyList(), Collections.emptyList(), 0.0);
+  }
+
+  @Override
+  public Map<String, String> nearestFacilities(List<String> facilities) {
+    return dataset.graph.nearestFacilities(facilities);
   }
 
   @Override
   public String statistics() {
-    int nodeCount = graph.getNodeCount();
-    int edgeCount = graph.getEdgeCount();
+    Dataset data = dataset;
+    int nodeCount = data.graph.getNodeCount();
+    int edgeCount = data.graph.getEdgeCount();
 
     // Use Math.ceil for rounding up
-    double adjustedWalkingTime = Math.ceil(totalWalkingTime / 2);
-    return "Nodes: " + nodeCount + " Edges: " + edgeCount + " Total Walking Time: " + adjustedWalkingTime;
+    double adjustedWalkingTime = Math.ceil(data.totalWalkingTime / 2);
+    return "Nodes: " + nodeCount + " Edges: " + edgeCount + " Total Walking Time: " + adjustedWalkingTime
+        + " " + data.routeCache.statistics();
   }
 
 
@@ -10,8 +10,19 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public class BackendDeveloperTests {
 
@@ -86,6 +97,283 @@ public class BackendDeveloperTests {
         "Each walking segment should be greater than 0."));
   }
 
+  /**
+   * Testcase6 Test that each entry of the distance matrix matches the shortestPath cost, and that
+   * unknown buildings get infinite entries
+   */
+  @Test
+  public void testCase6() {
+    backend.readData("campus.dot");
+    List<String> sources = Arrays.asList("Memorial Union", "Wendt Commons", "NonExistentLocation");
+    List<String> targets = Arrays.asList("Science Hall", "Computer Sciences and Statistics");
+    double[][] matrix = backend.distanceMatrix(sources, targets);
+
+    Assertions.assertEquals(3, matrix.length);
+    for (int i = 0; i < 2; i++) {
+      for (int j = 0; j < targets.size(); j++) {
+        double expected = backend.shortestPath(sources.get(i), targets.get(j)).getTotalPathCost();
+        Assertions.assertEquals(expected, matrix[i][j], 1e-9,
+            "Matrix entry should match the shortest path cost.");
+      }
+    }
+    Assertions.assertEquals(Double.POSITIVE_INFINITY, matrix[2][0],
+        "Unknown buildings should have an infinite walking time.");
+  }
+
+  /**
+   * Testcase7 Test that a backend using the all pairs table finds the same paths, saves the table,
+   * and that another backend can load it back
+   */
+  @Test
+  public void testCase7() throws IOException {
+    File cache = File.createTempFile("campus", ".table");
+    cache.delete();
+    cache.deleteOnExit();
+    backend.readData("campus.dot");
+    Backend tableBackend = new Backend();
+    tableBackend.useAllPairsTable(cache.getPath());
+    tableBackend.readData("campus.dot");
+    Assertions.assertTrue(cache.exists(), "The all pairs table should be saved to the cache file.");
+
+    Backend loadedBackend = new Backend();
+    loadedBackend.readData("campus.dot");
+    loadedBackend.useAllPairsTable(cache.getPath());
+    for (Backend other : Arrays.asList(tableBackend, loadedBackend)) {
+      ShortestPathInterface<String, Double> expected =
+          backend.shortestPath("Wendt Commons", "Memorial Union");
+      ShortestPathInterface<String, Double> actual =
+          other.shortestPath("Wendt Commons", "Memorial Union");
+      Assertions.assertEquals(expected.getTotalPathCost(), actual.getTotalPathCost(), 1e-9,
+          "Table lookups should find the same walking time.");
+      Assertions.assertEquals(expected.getPath().size(), actual.getPath().size());
+    }
+  }
+
+  /**
+   * Testcase8 Test that repeated routes are served from the route cache, that the cache counters
+   * appear in the statistics, and that reading the data again starts over with an empty route cache
+   */
+  @Test
+  public void testCase8() {
+    backend.readData("campus.dot");
+    ShortestPathInterface<String, Double> first =
+        backend.shortestPath("Memorial Union", "Science Hall");
+    ShortestPathInterface<String, Double> second =
+        backend.shortestPath("Memorial Union", "Science Hall");
+    Assertions.assertSame(first, second, "A repeated route should come from the cache.");
+    String stats = backend.statistics();
+    Assertions.assertTrue(stats.contains("Hits: 1") && stats.contains("Misses: 1"),
+        "Statistics should report the route cache hits and misses.");
+    Assertions.assertTrue(stats.contains("Nodes:") && stats.contains("Edges:"));
+
+    // reading the data again publishes a new graph with a cache of its own, so the route must be
+    // computed again; testCase9 covers routes dropped when the graph version changes
+    backend.readData("campus.dot");
+    ShortestPathInterface<String, Double> third =
+        backend.shortestPath("Memorial Union", "Science Hall");
+    Assertions.assertNotSame(first, third, "A route cached for the old data should not be used.");
+    Assertions.assertEquals(first.getTotalPathCost(), third.getTotalPathCost(), 1e-9);
+    stats = backend.statistics();
+    Assertions.assertTrue(stats.contains("Hits: 0") && stats.contains("Misses: 1"),
+        "The new data should start with an empty route cache.");
+  }
+
+  /**
+   * Testcase9 Test that the route cache evicts the least recently used route and drops every route
+   * when the graph version changes
+   */
+  @Test
+  public void testCase9() {
+    RouteCache<String, String> cache = new RouteCache<>(2);
+    cache.put("A", "route A", 1);
+    cache.put("B", "route B", 1);
+    Assertions.assertEquals("route A", cache.get("A", 1));
+    cache.put("C", "route C", 1);
+    Assertions.assertNull(cache.get("B", 1), "The least recently used route should be evicted.");
+    Assertions.assertEquals("route A", cache.get("A", 1));
+    Assertions.assertEquals(1, cache.getEvictions());
+
+    Assertions.assertNull(cache.get("A", 2), "Routes from an older graph version should be dropped.");
+    Assertions.assertEquals(0, cache.getSize());
+    Assertions.assertEquals(2, cache.getHits());
+    Assertions.assertEquals(2, cache.getMisses());
+  }
+
+  /**
+   * Testcase10 Test that the walking times of a path have one entry per segment and add up to the
+   * total path cost
+   */
+  @Test
+  public void testCase10() {
+    backend.readData("campus.dot");
+    ShortestPathInterface<String, Double> shortestPath =
+        backend.shortestPath("Memorial Union", "Computer Sciences and Statistics");
+    List<String> path = shortestPath.getPath();
+    List<Double> walkingTimes = shortestPath.getWalkingTimes();
+
+    Assertions.assertEquals(path.size() - 1, walkingTimes.size(),
+        "There should be one walking time per path segment.");
+    double sum = 0;
+    for (double walkingTime : walkingTimes)
+      sum += walkingTime;
+    Assertions.assertEquals(shortestPath.getTotalPathCost(), sum, 1e-9,
+        "The walking times should add up to the total path cost.");
+  }
+
+  /**
+   * Testcase11 Test that the buildings within a walking time and the nearest buildings agree with
+   * the shortestPath walking times, and come back closest first
+   */
+  @Test
+  public void testCase11() {
+    backend.readData("campus.dot");
+    Map<String, Double> within = backend.reachableWithin("Memorial Union", 300);
+    Assertions.assertFalse(within.isEmpty(), "Some buildings should be within 300 seconds.");
+    double previous = 0;
+    for (Map.Entry<String, Double> entry : within.entrySet()) {
+      Assertions.assertTrue(entry.getValue() <= 300 && entry.getValue() >= previous);
+      Assertions.assertEquals(
+          backend.shortestPath("Memorial Union", entry.getKey()).getTotalPathCost(),
+          entry.getValue(), 1e-9);
+      previous = entry.getValue();
+    }
+
+    Map<String, Double> nearest = backend.nearestBuildings("Memorial Union", 3);
+    Assertions.assertEquals(3, nearest.size());
+    Assertions.assertTrue(backend.nearestBuildings("NonExistentLocation", 3).isEmpty());
+  }
+
+  /**
+   * Testcase12 Test that alternative paths start with the shortest path, get longer, and never
+   * visit a building twice
+   */
+  @Test
+  public void testCase12() {
+    backend.readData("campus.dot");
+    List<ShortestPathInterface<String, Double>> paths =
+        backend.alternativePaths("Memorial Union", "Science Hall", 3);
+    Assertions.assertEquals(3, paths.size(), "Campus has at least three routes between these.");
+    Assertions.assertEquals(backend.shortestPath("Memorial Union", "Science Hall").getPath(),
+        paths.get(0).getPath(), "The first alternative should be the shortest path.");
+    for (int i = 0; i < paths.size(); i++) {
+      List<String> path = paths.get(i).getPath();
+      Assertions.assertEquals(path.size(), new HashSet<>(path).size());
+      if (i > 0)
+        Assertions.assertTrue(
+            paths.get(i).getTotalPathCost() >= paths.get(i - 1).getTotalPathCost());
+    }
+    Assertions.assertTrue(backend.alternativePaths("NonExistentLocation", "Science Hall", 3)
+        .isEmpty());
+  }
+
+  /**
+   * Testcase13 Test that many threads sharing one backend get the same walking times as a single
+   * thread, while the data is read again several times underneath them
+   */
+  @Test
+  public void testCase13() throws Exception {
+    backend.readData("campus.dot");
+    List<String> buildings = Arrays.asList("Memorial Union", "Science Hall", "Wendt Commons",
+        "Computer Sciences and Statistics");
+    double[][] expected = new double[buildings.size()][buildings.size()];
+    for (int i = 0; i < buildings.size(); i++)
+      for (int j = 0; j < buildings.size(); j++)
+        expected[i][j] =
+            backend.shortestPath(buildings.get(i), buildings.get(j)).getTotalPathCost();
+
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Integer>> results = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        int seed = t;
+        results.add(pool.submit(() -> {
+          int mismatches = 0;
+          for (int q = 0; q < 2000; q++) {
+            int i = (seed + q) % buildings.size();
+            int j = (seed * 3 + q / 4) % buildings.size();
+            ShortestPathInterface<String, Double> path =
+                backend.shortestPath(buildings.get(i), buildings.get(j));
+            if (Math.abs(path.getTotalPathCost() - expected[i][j]) > 1e-9)
+              mismatches++;
+          }
+          return mismatches;
+        }));
+      }
+      for (int reload = 0; reload < 3; reload++)
+        backend.readData("campus.dot");
+      for (Future<Integer> result : results)
+        Assertions.assertEquals(0, result.get(), "Concurrent queries should match serial ones.");
+    } finally {
+      pool.shutdown();
+      pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    Assertions.assertTrue(backend.statistics().contains("Nodes: 160"));
+  }
+
+  /**
+   * Testcase14 Test that the nearest of several destinations is the one with the cheapest shortest
+   * path, and that buildings are labelled with the facility they reach most quickly
+   */
+  @Test
+  public void testCase14() {
+    backend.readData("campus.dot");
+    List<String> facilities = Arrays.asList("Lot 36 - Observatory Drive Ramp", "Memorial Union",
+        "Computer Sciences and Statistics", "NonExistentLocation");
+    ShortestPathInterface<String, Double> nearest = backend.nearestOf("Union South", facilities);
+    double cheapest = Double.POSITIVE_INFINITY;
+    for (String facility : facilities.subList(0, 3))
+      cheapest = Math.min(cheapest, backend.shortestPath("Union South", facility).getTotalPathCost());
+    Assertions.assertEquals(cheapest, nearest.getTotalPathCost(), 1e-9);
+    Assertions.assertTrue(facilities.contains(nearest.getPath().get(nearest.getPath().size() - 1)));
+    Assertions.assertTrue(backend.nearestOf("NonExistentLocation", facilities).getPath().isEmpty());
+
+    Map<String, String> labels = backend.nearestFacilities(facilities);
+    Assertions.assertEquals("Memorial Union", labels.get("Memorial Union"));
+    for (String building : Arrays.asList("Union South", "Bascom Hall", "Science Hall")) {
+      double toLabel = backend.shortestPath(building, labels.get(building)).getTotalPathCost();
+      for (String facility : facilities.subList(0, 3))
+        Assertions.assertTrue(
+            toLabel <= backend.shortestPath(building, facility).getTotalPathCost() + 1e-9);
+    }
+  }
+
+  /**
+   * Testcase15 Test that buildings in separate parts of a campus get an empty path instead of an
+   * error, while buildings within one part are still connected
+   */
+  @Test
+  public void testCase15() throws IOException {
+    File data = File.createTempFile("islands", ".dot");
+    data.deleteOnExit();
+    Files.write(data.toPath(), Arrays.asList("graph campus {",
+        "\"North Hall\" -- \"South Hall\" [seconds=60.0];",
+        "\"East Hall\" -- \"West Hall\" [seconds=45.0];", "}"));
+    backend.readData(data.getPath());
+    ShortestPathInterface<String, Double> none = backend.shortestPath("North Hall", "West Hall");
+    Assertions.assertTrue(none.getPath().isEmpty(), "Unconnected buildings should have no path.");
+    Assertions.assertEquals(0.0, none.getTotalPathCost());
+    Assertions.assertEquals(60.0, backend.shortestPath("South Hall", "North Hall")
+        .getTotalPathCost(), 1e-9);
+    Assertions.assertTrue(backend.alternativePaths("East Hall", "South Hall", 2).isEmpty());
+  }
+
+  /**
+   * Testcase16 Test that a large route cache keeps a route that is used between every insertion,
+   * however many other routes pass through it, and never holds more routes than its capacity
+   */
+  @Test
+  public void testCase16() {
+    RouteCache<String, String> cache = new RouteCache<>(1024);
+    cache.put("hot", "hot route", 1);
+    for (int i = 0; i < 20000; i++) {
+      cache.put("route " + i, "cold route", 1);
+      Assertions.assertEquals("hot route", cache.get("hot", 1), "A hot route should stay cached.");
+    }
+    Assertions.assertEquals(1024, cache.getSize());
+    Assertions.assertEquals(20001 - 1024, cache.getEvictions());
+    Assertions.assertNull(cache.get("route 0", 1), "The oldest cold route should be evicted.");
+    Assertions.assertEquals("cold route", cache.get("route 19999", 1));
+  }
 
   /**
    * -----------------------Integration Test----------------------------
@@ -127,5 +415,3 @@ public class BackendDeveloperTests {
     Assertions.assertTrue(actual.contains(expected));
   }
 }
-
-
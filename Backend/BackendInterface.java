@@ -1,4 +1,6 @@
 import java.io.FileNotFoundException;
+import java.util.List;
+import java.util.Map;
 
 public interface BackendInterface {
 
@@ -16,6 +18,48 @@ public interface BackendInterface {
      */
     ShortestPathInterface<String, Double> shortestPath(String start, String end);
 
+    /**
+     * get up to k different paths from a start to a destination building that do not visit any
+     * building twice, ordered from the shortest to the longest walking time. The list is empty
+     * when either building is not in the dataset or no path connects them.
+     */
+    List<ShortestPathInterface<String, Double>> alternativePaths(String start, String end, int k);
+
+    /**
+     * get the walking time from each of the source buildings to each of the target buildings,
+     * with one row per source and one column per target. Entries are infinite when either
+     * building is not in the dataset or no path connects them.
+     */
+    double[][] distanceMatrix(List<String> sources, List<String> targets);
+
+    /**
+     * get every building within the given walking time of a start building, mapped to its walking
+     * time and ordered from the closest to the farthest. The map is empty when the start building
+     * is not in the dataset.
+     */
+    Map<String, Double> reachableWithin(String start, double seconds);
+
+    /**
+     * get the k buildings closest to a start building by walking time, mapped to their walking
+     * time and ordered from the closest to the farthest. The map is empty when the start building
+     * is not in the dataset.
+     */
+    Map<String, Double> nearestBuildings(String start, int k);
+
+    /**
+     * get the shortest path from a start building to whichever of the destination buildings is
+     * closest by walking time, found with a single search. The path is empty when the start
+     * building is not in the dataset or none of the destinations can be reached.
+     */
+    ShortestPathInterface<String, Double> nearestOf(String start, List<String> destinations);
+
+    /**
+     * get every building mapped to the facility (such as a parking lot) it can walk to most
+     * quickly, labelling all buildings in a single search. Buildings that cannot reach any
+     * facility are left out.
+     */
+    Map<String, String> nearestFacilities(List<String> facilities);
+
     /**
      * get a string with statistics about the dataset that includes the number of
      * nodes (buildings), the number of edges, and the total walking time (sum of
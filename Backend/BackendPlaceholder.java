@@ -1,4 +1,7 @@
 import java.io.FileNotFoundException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 /**
  * This class serves as a placeholder for the backend implementation of the UW Path Finder app.
@@ -34,6 +37,86 @@ public class BackendPlaceholder extends BaseGraph implements BackendInterface {
     return null;  // Replace with a dummy implementation as needed
   }
 
+  /**
+   * Returns a placeholder matrix of walking times between buildings.
+   *
+   * @param sources The starting buildings.
+   * @param targets The destination buildings.
+   * @return a matrix of zeros with one row per source and one column per target.
+   */
+  @Override
+  public double[][] distanceMatrix(List<String> sources, List<String> targets) {
+    System.out.println("Distance matrix for " + sources.size() + " x " + targets.size()
+        + " buildings calculated.");
+    return new double[sources.size()][targets.size()];
+  }
+
+  /**
+   * Placeholder implementation for finding alternative paths.
+   *
+   * @param start The starting building.
+   * @param end   The destination building.
+   * @param k     The number of paths to find.
+   * @return an empty list.
+   */
+  @Override
+  public List<ShortestPathInterface<String, Double>> alternativePaths(String start, String end,
+      int k) {
+    System.out.println(k + " alternative paths from " + start + " to " + end + " calculated.");
+    return Collections.emptyList();
+  }
+
+  /**
+   * Placeholder implementation for finding the buildings within a walking time.
+   *
+   * @param start   The starting building.
+   * @param seconds The largest walking time to include.
+   * @return an empty map.
+   */
+  @Override
+  public Map<String, Double> reachableWithin(String start, double seconds) {
+    System.out.println("Buildings within " + seconds + " seconds of " + start + " calculated.");
+    return Collections.emptyMap();
+  }
+
+  /**
+   * Placeholder implementation for finding the closest buildings.
+   *
+   * @param start The starting building.
+   * @param k     The number of buildings to find.
+   * @return an empty map.
+   */
+  @Override
+  public Map<String, Double> nearestBuildings(String start, int k) {
+    System.out.println(k + " nearest buildings to " + start + " calculated.");
+    return Collections.emptyMap();
+  }
+
+  /**
+   * Placeholder implementation for finding the closest of several destinations.
+   *
+   * @param start        The starting building.
+   * @param destinations The buildings the path may end at.
+   * @return null to indicate this is a placeholder implementation.
+   */
+  @Override
+  public ShortestPathInterface<String, Double> nearestOf(String start, List<String> destinations) {
+    System.out.println("Nearest of " + destinations + " to " + start + " calculated.");
+    return null;
+  }
+
+  /**
+   * Placeholder implementation for labelling buildings with their nearest facility.
+   *
+   * @param facilities The facility buildings.
+   * @return an empty map.
+   */
+  @Override
+  public Map<String, String> nearestFacilities(List<String> facilities) {
+    System.out.println("Nearest facilities among " + facilities + " calculated.");
+    return Collections.emptyMap();
+  }
+
   /**
    * Provides placeholder statistics about the dataset.
    *
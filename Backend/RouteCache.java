@@ -0,0 +1,198 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class caches recently computed routes, evicting the least recently used route once it holds
+ * more than its capacity. Every lookup and insertion carries the version of the graph the routes
+ * come from, and all cached routes are dropped as soon as that version changes, so a route computed
+ * before the graph was modified is never returned.
+ *
+ * The cache is safe to use from many threads at once. Routes are split between stripes by the hash
+ * codes of their keys, and each stripe is an access-ordered LinkedHashMap with a lock of its own,
+ * holding an equal share of the capacity and evicting its own least recently used route, so threads
+ * using routes in different stripes never wait for each other. A cache with room for fewer than
+ * STRIPE_CAPACITY routes per stripe uses fewer stripes, down to a single one that is exactly LRU.
+ *
+ * @param <KeyType>   the type of keys identifying a route
+ * @param <ValueType> the type of cached routes
+ */
+public class RouteCache<KeyType, ValueType> {
+
+  // the most stripes a cache is split into, and the fewest routes each stripe is given room for
+  private static final int MAX_STRIPES = 16; // must be a power of two
+  private static final int STRIPE_CAPACITY = 64;
+
+  // A cached route, with the graph version it came from
+  private static class Entry<ValueType> {
+    final ValueType value;
+    final long version;
+
+    Entry(ValueType value, long version) {
+      this.value = value;
+      this.version = version;
+    }
+  }
+
+  // An access-ordered map that evicts its least recently used route once it holds too many
+  private static class Stripe<KeyType, ValueType>
+      extends LinkedHashMap<KeyType, Entry<ValueType>> {
+    private static final long serialVersionUID = 1L;
+    private final int stripeCapacity;
+    private final LongAdder evictions;
+
+    Stripe(int stripeCapacity, LongAdder evictions) {
+      super(16, 0.75f, true);
+      this.stripeCapacity = stripeCapacity;
+      this.evictions = evictions;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<KeyType, Entry<ValueType>> eldest) {
+      if (size() <= stripeCapacity) {
+        return false;
+      }
+      evictions.increment();
+      return true;
+    }
+  }
+
+  private final int capacity;
+  private final Stripe<KeyType, ValueType>[] stripes;
+  private volatile long version = 0; // graph version of the cached routes
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Constructs a new RouteCache.
+   *
+   * @param capacity the largest number of routes to keep, where 0 disables caching
+   * @throws IllegalArgumentException if capacity is negative
+   */
+  @SuppressWarnings("unchecked")
+  public RouteCache(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative");
+    }
+    this.capacity = capacity;
+    int stripeCount = 1;
+    while (stripeCount < MAX_STRIPES && stripeCount * 2 * STRIPE_CAPACITY <= capacity) {
+      stripeCount *= 2;
+    }
+    // share the capacity out so that the stripes together hold exactly capacity routes
+    stripes = (Stripe<KeyType, ValueType>[]) new Stripe<?, ?>[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      int stripeCapacity = capacity / stripeCount + (i < capacity % stripeCount ? 1 : 0);
+      stripes[i] = new Stripe<>(stripeCapacity, evictions);
+    }
+  }
+
+  // Returns the stripe that holds key's route
+  private Stripe<KeyType, ValueType> stripeFor(Object key) {
+    int h = key.hashCode() * 0x9E3779B9;
+    return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+  }
+
+  /**
+   * Retrieves a cached route, and marks it as the most recently used route of its stripe.
+   *
+   * @param key          the key of the route
+   * @param graphVersion the current version of the graph
+   * @return the cached route, or null when there is no route for key from this graph version
+   */
+  public ValueType get(KeyType key, long graphVersion) {
+    invalidateIfChanged(graphVersion);
+    Stripe<KeyType, ValueType> stripe = stripeFor(key);
+    Entry<ValueType> entry;
+    synchronized (stripe) {
+      entry = stripe.get(key);
+    }
+    // an entry from another version can slip in while the version changes, so check each one
+    if (entry == null || entry.version != graphVersion) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return entry.value;
+  }
+
+  /**
+   * Adds a route to the cache, evicting the least recently used route of its stripe when that
+   * stripe is full.
+   *
+   * @param key          the key of the route
+   * @param value        the route
+   * @param graphVersion the version of the graph the route was computed from
+   */
+  public void put(KeyType key, ValueType value, long graphVersion) {
+    invalidateIfChanged(graphVersion);
+    if (capacity == 0) {
+      return;
+    }
+    Stripe<KeyType, ValueType> stripe = stripeFor(key);
+    synchronized (stripe) {
+      stripe.put(key, new Entry<>(value, graphVersion));
+    }
+  }
+
+  /**
+   * Drops every cached route when the graph version differs from the cached routes' version.
+   */
+  private void invalidateIfChanged(long graphVersion) {
+    if (graphVersion != version) {
+      synchronized (this) {
+        if (graphVersion != version) {
+          for (Stripe<KeyType, ValueType> stripe : stripes) {
+            synchronized (stripe) {
+              stripe.clear();
+            }
+          }
+          version = graphVersion;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the number of cached routes
+   */
+  public int getSize() {
+    int size = 0;
+    for (Stripe<KeyType, ValueType> stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+
+  /**
+   * @return the number of lookups that found a cached route
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of lookups that found no cached route
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the number of routes evicted to stay within capacity
+   */
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * @return a string with the cache's size, capacity, hits, misses and evictions
+   */
+  public String statistics() {
+    return "Route Cache: " + getSize() + "/" + capacity + " Hits: " + getHits() + " Misses: "
+        + getMisses() + " Evictions: " + getEvictions();
+  }
+}
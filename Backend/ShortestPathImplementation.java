@@ -1,29 +1,56 @@
+import java.util.AbstractList;
 import java.util.List;
 
 public class ShortestPathImplementation implements ShortestPathInterface<String, Double> {
   // Initialize and constructor
-  private final List<String> path;
-  private final List<Double> walkingTimes;
-  private final Double totalPathCost;
+  // buildings and walking times are kept in arrays, and the getters return read-only views of them
+  private final String[] path;
+  private final double[] walkingTimes;
+  private final double totalPathCost;
 
-  public ShortestPathImplementation(List<String> path, List<Double> walkingTimes,
-      Double totalPathCost) {
+  public ShortestPathImplementation(String[] path, double[] walkingTimes, double totalPathCost) {
     this.path = path;
     this.walkingTimes = walkingTimes;
     this.totalPathCost = totalPathCost;
   }
 
+  public ShortestPathImplementation(List<String> path, List<Double> walkingTimes,
+      Double totalPathCost) {
+    this(path.toArray(new String[0]),
+        walkingTimes.stream().mapToDouble(Double::doubleValue).toArray(), totalPathCost);
+  }
+
   /**
    * Implementation of the ShortestPathInterce Getter methods
    */
   @Override
   public List<String> getPath() {
-    return path;
+    return new AbstractList<String>() {
+      @Override
+      public String get(int index) {
+        return path[index];
+      }
+
+      @Override
+      public int size() {
+        return path.length;
+      }
+    };
   }
 
   @Override
   public List<Double> getWalkingTimes() {
-    return walkingTimes;
+    return new AbstractList<Double>() {
+      @Override
+      public Double get(int index) {
+        return walkingTimes[index];
+      }
+
+      @Override
+      public int size() {
+        return walkingTimes.length;
+      }
+    };
   }
 
   @Override
@@ -31,5 +58,3 @@ public class ShortestPathImplementation implements ShortestPathInterface<String,
     return totalPathCost;
   }
 }
-
-
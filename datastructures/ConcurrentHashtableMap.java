@@ -0,0 +1,534 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * This class implements a hashtable-based map that any number of threads can use at once. The
+ * keys are split between a fixed number of segments by the high bits of their spread hash codes,
+ * and each segment is a chained hashtable with a lock of its own, so threads that write keys in
+ * different segments never wait for each other.
+ *
+ * Lookups take no lock at all. A chain's entries never change once they are linked in: put() links
+ * a new entry in front of a chain, remove() copies the entries in front of the removed one, and a
+ * resize copies every chain into the new table before publishing it. A lookup therefore always
+ * walks a complete chain, though one that may not include writes that finish while it runs.
+ *
+ * Besides the MapADT operations, putIfAbsent() and computeIfAbsent() check for a key and add it
+ * as one atomic step, which lets several threads intern the same keys without adding any twice.
+ *
+ * @param <KeyType>   the type of keys maintained by this map
+ * @param <ValueType> the type of mapped values
+ */
+public class ConcurrentHashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueType> {
+
+  private static final int DEFAULT_CAPACITY = 32;
+  private static final int SEGMENT_COUNT = 16; // must be a power of two
+  private static final int SEGMENT_BITS = 4; // log2 of SEGMENT_COUNT
+  private static final double MAX_LOAD_FACTOR = 0.75;
+
+  /**
+   * An immutable entry in a chain, which can be read without locking once it is published.
+   */
+  protected static final class Entry<KeyType, ValueType> {
+    final int hash;
+    final KeyType key;
+    final ValueType value;
+    final Entry<KeyType, ValueType> next;
+
+    Entry(int hash, KeyType key, ValueType value, Entry<KeyType, ValueType> next) {
+      this.hash = hash;
+      this.key = key;
+      this.value = value;
+      this.next = next;
+    }
+  }
+
+  /**
+   * One lock-guarded part of the map, holding the keys whose hash codes start with its index.
+   * Writers synchronize on the segment, while readers only read its volatile table.
+   */
+  protected static final class Segment<KeyType, ValueType> {
+    volatile AtomicReferenceArray<Entry<KeyType, ValueType>> table;
+    volatile int count = 0; // written only while holding the segment's lock
+
+    Segment(int capacity) {
+      table = new AtomicReferenceArray<>(capacity);
+    }
+
+    // Returns the entry holding key, or null when the segment does not store it
+    Entry<KeyType, ValueType> find(int hash, Object key) {
+      AtomicReferenceArray<Entry<KeyType, ValueType>> current = table;
+      Entry<KeyType, ValueType> entry = current.get(hash & (current.length() - 1));
+      while (entry != null && (entry.hash != hash || !entry.key.equals(key)))
+        entry = entry.next;
+      return entry;
+    }
+
+    // Links a new entry in front of its chain, growing the table first when it is too full; the
+    // caller holds the lock and has checked that key is absent
+    void add(int hash, KeyType key, ValueType value) {
+      if (count + 1 > table.length() * MAX_LOAD_FACTOR)
+        resize();
+      AtomicReferenceArray<Entry<KeyType, ValueType>> current = table;
+      int index = hash & (current.length() - 1);
+      current.set(index, new Entry<>(hash, key, value, current.get(index)));
+      count++;
+    }
+
+    // Copies every chain into a table twice the size, and then publishes it to readers
+    void resize() {
+      AtomicReferenceArray<Entry<KeyType, ValueType>> current = table;
+      AtomicReferenceArray<Entry<KeyType, ValueType>> larger =
+          new AtomicReferenceArray<>(current.length() * 2);
+      int mask = larger.length() - 1;
+      for (int i = 0; i < current.length(); i++) {
+        for (Entry<KeyType, ValueType> e = current.get(i); e != null; e = e.next) {
+          int index = e.hash & mask;
+          larger.set(index, new Entry<>(e.hash, e.key, e.value, larger.get(index)));
+        }
+      }
+      table = larger;
+    }
+  }
+
+  private final Segment<KeyType, ValueType>[] segments;
+
+  /**
+   * Constructs a new ConcurrentHashtableMap with at least the specified capacity, split evenly
+   * between its segments.
+   *
+   * @param capacity the initial capacity of the hashtable
+   */
+  @SuppressWarnings("unchecked")
+  public ConcurrentHashtableMap(int capacity) {
+    int segmentCapacity = 2;
+    while (segmentCapacity * SEGMENT_COUNT < capacity)
+      segmentCapacity *= 2;
+    segments = (Segment<KeyType, ValueType>[]) new Segment<?, ?>[SEGMENT_COUNT];
+    for (int i = 0; i < SEGMENT_COUNT; i++)
+      segments[i] = new Segment<>(segmentCapacity);
+  }
+
+  /**
+   * Constructs a new ConcurrentHashtableMap with the default capacity.
+   */
+  public ConcurrentHashtableMap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Spreads the bits of a key's hash code over the whole int, so that both the segment, chosen by
+   * the high bits, and the bucket, chosen by the low bits, depend on all of them.
+   */
+  private static int hash(Object key) {
+    int h = key.hashCode() * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  // Returns the segment that holds keys with this spread hash code
+  private Segment<KeyType, ValueType> segmentFor(int hash) {
+    return segments[hash >>> (32 - SEGMENT_BITS)];
+  }
+
+  /**
+   * Adds a new key,value pair/mapping to this collection.
+   *
+   * @param key   the key of the key,value pair
+   * @param value the value that key maps to
+   * @throws IllegalArgumentException if key already maps to a value
+   * @throws NullPointerException     if key is null
+   */
+  @Override
+  public void put(KeyType key, ValueType value)
+      throws IllegalArgumentException, NullPointerException {
+    if (key == null) {
+      throw new NullPointerException("Key cannot be null");
+    }
+    int hash = hash(key);
+    Segment<KeyType, ValueType> segment = segmentFor(hash);
+    synchronized (segment) {
+      if (segment.find(hash, key) != null) {
+        throw new IllegalArgumentException("Key already exists");
+      }
+      segment.add(hash, key, value);
+    }
+  }
+
+  /**
+   * Adds a key,value pair unless key already maps to a value, as one atomic step.
+   *
+   * @param key   the key of the key,value pair
+   * @param value the value to map key to when it is absent
+   * @return the value key already mapped to, or null if value was added
+   * @throws NullPointerException if key is null
+   */
+  public ValueType putIfAbsent(KeyType key, ValueType value) throws NullPointerException {
+    if (key == null) {
+      throw new NullPointerException("Key cannot be null");
+    }
+    int hash = hash(key);
+    Segment<KeyType, ValueType> segment = segmentFor(hash);
+    synchronized (segment) {
+      Entry<KeyType, ValueType> entry = segment.find(hash, key);
+      if (entry != null) {
+        return entry.value;
+      }
+      segment.add(hash, key, value);
+      return null;
+    }
+  }
+
+  /**
+   * Retrieves the value a key maps to, first computing and adding it if the key is absent. Threads
+   * asking for the same absent key wait for each other, so the value is computed only once. The
+   * computation holds the lock of the key's segment, so it must be short and must not use this map.
+   *
+   * @param key      the key to look up
+   * @param function computes the value for key when it is absent
+   * @return the value that key maps to
+   * @throws NullPointerException if key or function is null
+   */
+  public ValueType computeIfAbsent(KeyType key,
+      Function<? super KeyType, ? extends ValueType> function) throws NullPointerException {
+    if (key == null || function == null) {
+      throw new NullPointerException("Key and function cannot be null");
+    }
+    int hash = hash(key);
+    Segment<KeyType, ValueType> segment = segmentFor(hash);
+    Entry<KeyType, ValueType> entry = segment.find(hash, key);
+    if (entry != null) {
+      return entry.value; // most calls find the key, and never lock
+    }
+    synchronized (segment) {
+      entry = segment.find(hash, key);
+      if (entry != null) {
+        return entry.value;
+      }
+      ValueType value = function.apply(key);
+      segment.add(hash, key, value);
+      return value;
+    }
+  }
+
+  /**
+   * Checks whether a key maps to a value in this collection.
+   *
+   * @param key the key to check
+   * @return true if the key maps to a value, and false is the key doesn't map to a value
+   */
+  @Override
+  public boolean containsKey(KeyType key) {
+    int hash = hash(key);
+    return segmentFor(hash).find(hash, key) != null;
+  }
+
+  /**
+   * Retrieves the specific value that a key maps to.
+   *
+   * @param key the key to look up
+   * @return the value that key maps to
+   * @throws NoSuchElementException when key is not stored in this collection
+   */
+  @Override
+  public ValueType get(KeyType key) throws NoSuchElementException {
+    int hash = hash(key);
+    Entry<KeyType, ValueType> entry = segmentFor(hash).find(hash, key);
+    if (entry == null) {
+      throw new NoSuchElementException("Key not found");
+    }
+    return entry.value;
+  }
+
+  /**
+   * Remove the mapping for a key from this collection.
+   *
+   * @param key the key whose mapping to remove
+   * @return the value that the removed key mapped to
+   * @throws NoSuchElementException when key is not stored in this collection
+   */
+  @Override
+  public ValueType remove(KeyType key) throws NoSuchElementException {
+    int hash = hash(key);
+    Segment<KeyType, ValueType> segment = segmentFor(hash);
+    synchronized (segment) {
+      AtomicReferenceArray<Entry<KeyType, ValueType>> table = segment.table;
+      int index = hash & (table.length() - 1);
+      Entry<KeyType, ValueType> first = table.get(index);
+      Entry<KeyType, ValueType> removed = first;
+      while (removed != null && (removed.hash != hash || !removed.key.equals(key)))
+        removed = removed.next;
+      if (removed == null) {
+        throw new NoSuchElementException("Key not found");
+      }
+      // readers may be walking the chain, so the entries in front of the removed one are copied
+      // onto the rest of the chain instead of being relinked
+      Entry<KeyType, ValueType> chain = removed.next;
+      for (Entry<KeyType, ValueType> e = first; e != removed; e = e.next)
+        chain = new Entry<>(e.hash, e.key, e.value, chain);
+      table.set(index, chain);
+      segment.count--;
+      return removed.value;
+    }
+  }
+
+  /**
+   * Removes all key,value pairs from this collection. Each segment is cleared in turn, so keys that
+   * other threads add meanwhile may remain.
+   */
+  @Override
+  public void clear() {
+    for (Segment<KeyType, ValueType> segment : segments) {
+      synchronized (segment) {
+        segment.table = new AtomicReferenceArray<>(segment.table.length());
+        segment.count = 0;
+      }
+    }
+  }
+
+  /**
+   * Retrieves the number of keys stored in this collection. While other threads are writing, the
+   * count may miss or include their latest changes.
+   *
+   * @return the number of keys stored in this collection
+   */
+  @Override
+  public int getSize() {
+    int size = 0;
+    for (Segment<KeyType, ValueType> segment : segments)
+      size += segment.count;
+    return size;
+  }
+
+  /**
+   * Retrieves this collection's capacity.
+   *
+   * @return the total size of the segments' underlying arrays
+   */
+  @Override
+  public int getCapacity() {
+    int capacity = 0;
+    for (Segment<KeyType, ValueType> segment : segments)
+      capacity += segment.table.length();
+    return capacity;
+  }
+
+  // JUnit Tests
+
+  // Runs each task on a thread of its own, all at once, and fails if any of them throws
+  private static void runConcurrently(List<Runnable> tasks) {
+    List<Thread> threads = new ArrayList<>();
+    List<Throwable> failures = new ArrayList<>();
+    for (Runnable task : tasks) {
+      Thread thread = new Thread(task);
+      thread.setUncaughtExceptionHandler((t, e) -> {
+        synchronized (failures) {
+          failures.add(e);
+        }
+      });
+      threads.add(thread);
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+    }
+    Assertions.assertEquals(new ArrayList<Throwable>(), failures);
+  }
+
+  /**
+   * Tests the basic MapADT contract from one thread, along with putIfAbsent and computeIfAbsent,
+   * and random puts and removes against java.util.HashMap.
+   */
+  @Test
+  public void testMapContract() {
+    ConcurrentHashtableMap<String, Integer> map = new ConcurrentHashtableMap<>(5);
+    Assertions.assertEquals(32, map.getCapacity());
+    map.put("key1", 1);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> map.put("key1", 2));
+    Assertions.assertThrows(NullPointerException.class, () -> map.put(null, 1));
+    Assertions.assertThrows(NoSuchElementException.class, () -> map.get("keyX"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> map.remove("keyX"));
+    Assertions.assertEquals(1, map.putIfAbsent("key1", 3));
+    Assertions.assertNull(map.putIfAbsent("key2", 2));
+    Assertions.assertEquals(2, map.computeIfAbsent("key2", key -> 4));
+    Assertions.assertEquals(3, map.computeIfAbsent("key3", key -> 3));
+    Assertions.assertEquals(3, map.getSize());
+    map.clear();
+    Assertions.assertEquals(0, map.getSize());
+    Assertions.assertFalse(map.containsKey("key1"));
+
+    Random random = new Random(24);
+    Map<Integer, Integer> expected = new HashMap<>();
+    ConcurrentHashtableMap<Integer, Integer> numbers = new ConcurrentHashtableMap<>();
+    for (int i = 0; i < 20000; i++) {
+      int key = random.nextInt(2000);
+      if (random.nextInt(3) == 0) {
+        if (expected.containsKey(key))
+          Assertions.assertEquals(expected.remove(key), numbers.remove(key));
+        else
+          Assertions.assertThrows(NoSuchElementException.class, () -> numbers.remove(key));
+      } else if (!expected.containsKey(key)) {
+        expected.put(key, i);
+        numbers.put(key, i);
+      }
+      Assertions.assertEquals(expected.size(), numbers.getSize());
+    }
+    for (int key = 0; key < 2000; key++) {
+      Assertions.assertEquals(expected.containsKey(key), numbers.containsKey(key));
+      if (expected.containsKey(key))
+        Assertions.assertEquals(expected.get(key), numbers.get(key));
+    }
+  }
+
+  /**
+   * Stress tests writers that put and remove their own keys while readers look them up, starting
+   * from a small capacity so that segments resize under the readers. Each reader checks that a key
+   * it sees maps to the value written with it.
+   */
+  @Test
+  public void testConcurrentPutsRemovesAndReads() {
+    ConcurrentHashtableMap<Integer, Integer> map = new ConcurrentHashtableMap<>(2);
+    int writers = 4;
+    int keysPerWriter = 20000;
+    List<Runnable> tasks = new ArrayList<>();
+    for (int w = 0; w < writers; w++) {
+      int first = w * keysPerWriter;
+      tasks.add(() -> {
+        for (int key = first; key < first + keysPerWriter; key++)
+          map.put(key, -key);
+        // remove every even key again, leaving the odd ones
+        for (int key = first; key < first + keysPerWriter; key += 2)
+          Assertions.assertEquals(-key, map.remove(key));
+      });
+      tasks.add(() -> {
+        Random random = new Random(first);
+        for (int i = 0; i < 100000; i++) {
+          int key = random.nextInt(writers * keysPerWriter);
+          try {
+            Assertions.assertEquals(-key, map.get(key));
+          } catch (NoSuchElementException e) {
+            // not written yet, or already removed
+          }
+        }
+      });
+    }
+    runConcurrently(tasks);
+
+    Assertions.assertEquals(writers * keysPerWriter / 2, map.getSize());
+    for (int key = 0; key < writers * keysPerWriter; key++)
+      Assertions.assertEquals(key % 2 == 1, map.containsKey(key));
+  }
+
+  /**
+   * Stress tests threads interning the same building names into one shared node index at once:
+   * computeIfAbsent must compute each id exactly once, and every thread must see the same id for
+   * a name.
+   */
+  @Test
+  public void testComputeIfAbsentInternsOnce() {
+    ConcurrentHashtableMap<String, Integer> index = new ConcurrentHashtableMap<>();
+    AtomicInteger nextId = new AtomicInteger();
+    int threads = 6;
+    int names = 5000;
+    int[][] seen = new int[threads][names];
+    List<Runnable> tasks = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int[] ids = seen[t];
+      int offset = t * 997;
+      tasks.add(() -> {
+        for (int i = 0; i < names; i++) {
+          int name = (i + offset) % names;
+          ids[name] = index.computeIfAbsent("Building " + name, key -> nextId.getAndIncrement());
+        }
+      });
+    }
+    runConcurrently(tasks);
+
+    Assertions.assertEquals(names, nextId.get());
+    Assertions.assertEquals(names, index.getSize());
+    for (int name = 0; name < names; name++) {
+      for (int t = 1; t < threads; t++)
+        Assertions.assertEquals(seen[0][name], seen[t][name]);
+      Assertions.assertEquals(seen[0][name], index.get("Building " + name));
+    }
+  }
+
+  /**
+   * Tests the map as a graph's node index: threads intern the building names of their share of the
+   * edges through computeIfAbsent, as GraphBuilder numbers nodes, and the graph built from those
+   * ids, with this map as its node map, then answers queries from several threads at once.
+   */
+  @Test
+  public void testConcurrentNodeIndexForGraph() {
+    int buildings = 200;
+    int threads = 4;
+    ConcurrentHashtableMap<String, Integer> index = new ConcurrentHashtableMap<>(2);
+    AtomicInteger nextId = new AtomicInteger();
+    List<List<int[]>> edges = new ArrayList<>(); // {from id, to id, weight} found by each thread
+    List<Runnable> tasks = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      List<int[]> found = new ArrayList<>();
+      edges.add(found);
+      int first = t;
+      tasks.add(() -> {
+        // a ring of short edges, and longer chords that every thread's share overlaps with
+        for (int i = first; i < buildings; i += threads) {
+          int from = index.computeIfAbsent("Building " + i, key -> nextId.getAndIncrement());
+          int next = index.computeIfAbsent("Building " + (i + 1) % buildings,
+              key -> nextId.getAndIncrement());
+          int chord = index.computeIfAbsent("Building " + (i * 7) % buildings,
+              key -> nextId.getAndIncrement());
+          found.add(new int[] {from, next, 1});
+          found.add(new int[] {from, chord, 5});
+        }
+      });
+    }
+    runConcurrently(tasks);
+    Assertions.assertEquals(buildings, nextId.get());
+    Assertions.assertEquals(buildings, index.getSize());
+
+    // insert the nodes in id order, so that the graph numbers them the same way
+    String[] names = new String[buildings];
+    for (int i = 0; i < buildings; i++)
+      names[index.get("Building " + i)] = "Building " + i;
+    DijkstraGraph<String, Integer> graph = new DijkstraGraph<>(new ConcurrentHashtableMap<>());
+    for (String name : names)
+      graph.insertNode(name);
+    for (List<int[]> found : edges)
+      for (int[] edge : found)
+        graph.insertEdge(names[edge[0]], names[edge[1]], edge[2]);
+    for (int i = 0; i < buildings; i++)
+      Assertions.assertEquals(index.get("Building " + i), graph.nodes.get("Building " + i).id);
+
+    // label the components before queries share the graph, as Backend does before publishing it
+    graph.components();
+    double[] expected = new double[buildings];
+    for (int i = 0; i < buildings; i++)
+      expected[i] = graph.shortestPathCost("Building 0", "Building " + i);
+    List<Runnable> queries = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      queries.add(() -> {
+        for (int i = 0; i < buildings; i++) {
+          String name = "Building " + i;
+          Assertions.assertEquals(expected[i], graph.shortestPathCost("Building 0", name));
+        }
+      });
+    }
+    runConcurrently(queries);
+    Assertions.assertEquals(0, expected[0]);
+    // one step around the ring to Building 1, then its chord to Building 7
+    Assertions.assertEquals(6, expected[7]);
+  }
+}
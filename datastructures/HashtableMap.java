@@ -9,21 +9,38 @@
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Random;
 
 /**
  * This class implements a hashtable-based map to store and retrieve key-value pairs. The map does
  * not allow duplicate keys and uses chaining to resolve collisions.
  *
+ * By default, the table doubles in one step whenever it becomes too full, so the put that triggers
+ * the resize moves every entry. In incremental resize mode the old table is instead kept beside the
+ * new one, and each later put or remove moves a few of the old table's buckets over, so that no
+ * single operation does more than a bounded amount of rehashing. Lookups check both tables while a
+ * resize is in progress, and never move entries themselves.
+ *
  * @param <KeyType>   the type of keys maintained by this map
  * @param <ValueType> the type of mapped values
  */
 public class HashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueType> {
 
   private static final int DEFAULT_CAPACITY = 32;
+  // number of old buckets moved by each put or remove during an incremental resize, which must be
+  // at least 2 for every bucket to be moved before the new table fills up in turn
+  private static final int MIGRATION_STEP = 4;
   protected LinkedList<Pair>[] table; // Array of linked lists for chaining
   private int size; // Number of key-value pairs in the hashtable
+  private final boolean incrementalResize;
+  // the table being emptied into table during an incremental resize, or null when there is none,
+  // whose buckets before migrated have already been moved
+  protected LinkedList<Pair>[] oldTable = null;
+  protected int migrated = 0;
 
 
   /**
@@ -44,10 +61,22 @@ public class HashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueTy
    *
    * @param capacity the initial capacity of the hashtable
    */
-  @SuppressWarnings("unchecked")
   public HashtableMap(int capacity) {
+    this(capacity, false);
+  }
+
+  /**
+   * Constructs a new HashtableMap with the specified capacity, which resizes either all at once or
+   * incrementally.
+   *
+   * @param capacity          the initial capacity of the hashtable
+   * @param incrementalResize true to spread each resize over later operations
+   */
+  @SuppressWarnings("unchecked")
+  public HashtableMap(int capacity, boolean incrementalResize) {
     table = new LinkedList[capacity];
     size = 0;
+    this.incrementalResize = incrementalResize;
   }
 
   /**
@@ -71,19 +100,17 @@ public class HashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueTy
     if (key == null) {
       throw new NullPointerException("Key cannot be null");
     }
+    migrateStep();
+    if (findPair(key) != null) {
+      throw new IllegalArgumentException("Key already exists");
+    }
 
-    int index = Math.abs(key.hashCode()) % table.length;
-    if (table[index] == null) {
-      table[index] = new LinkedList<>();
+    // a key whose bucket has not moved yet joins it in the old table, where lookups look for it
+    if (oldTable != null && indexOf(key, oldTable.length) >= migrated) {
+      addToTable(oldTable, new Pair(key, value));
     } else {
-      for (Pair pair : table[index]) {
-        if (pair.key.equals(key)) {
-          throw new IllegalArgumentException("Key already exists");
-        }
-      }
+      addToTable(table, new Pair(key, value));
     }
-
-    table[index].add(new Pair(key, value));
     size++;
     if ((double) size / table.length >= 0.75) {
       resize();
@@ -98,16 +125,7 @@ public class HashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueTy
    */
   @Override
   public boolean containsKey(KeyType key) {
-    int index = Math.abs(key.hashCode()) % table.length;
-    LinkedList<Pair> bucket = table[index];
-    if (bucket != null) {
-      for (Pair pair : bucket) {
-        if (pair.key.equals(key)) {
-          return true;
-        }
-      }
-    }
-    return false;
+    return findPair(key) != null;
   }
 
   /**
@@ -119,14 +137,9 @@ public class HashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueTy
    */
   @Override
   public ValueType get(KeyType key) throws NoSuchElementException {
-    int index = Math.abs(key.hashCode()) % table.length;
-    LinkedList<Pair> bucket = table[index];
-    if (bucket != null) {
-      for (Pair pair : bucket) {
-        if (pair.key.equals(key)) {
-          return pair.value;
-        }
-      }
+    Pair pair = findPair(key);
+    if (pair != null) {
+      return pair.value;
     }
     throw new NoSuchElementException("Key not found");
   }
@@ -140,8 +153,8 @@ public class HashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueTy
    */
   @Override
   public ValueType remove(KeyType key) throws NoSuchElementException {
-    int index = Math.abs(key.hashCode()) % table.length;
-    LinkedList<Pair> bucket = table[index];
+    migrateStep();
+    LinkedList<Pair> bucket = bucketOf(key);
     if (bucket != null) {
       for (Pair pair : bucket) {
         if (pair.key.equals(key)) {
@@ -164,6 +177,7 @@ public class HashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueTy
         table[i].clear();
       }
     }
+    oldTable = null;
     size = 0;
   }
 
@@ -188,18 +202,98 @@ public class HashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueTy
   }
 
   /**
-   * Resizes the hashtable to twice its current size and rehashes all the elements.
+   * Checks whether an incremental resize is still moving entries out of the old table.
+   *
+   * @return true if some entries are still stored in the old table
+   */
+  public boolean isResizing() {
+    return oldTable != null;
+  }
+
+  // Returns the index of key's bucket in a table of the provided length
+  private int indexOf(Object key, int length) {
+    return Math.abs(key.hashCode()) % length;
+  }
+
+  /**
+   * Returns the bucket that holds key, which is in the old table when an incremental resize has not
+   * moved that bucket yet.
+   */
+  private LinkedList<Pair> bucketOf(Object key) {
+    if (oldTable != null) {
+      int oldIndex = indexOf(key, oldTable.length);
+      if (oldIndex >= migrated) {
+        return oldTable[oldIndex];
+      }
+    }
+    return table[indexOf(key, table.length)];
+  }
+
+  // Returns the pair holding key, or null when key is not stored in this collection
+  private Pair findPair(Object key) {
+    LinkedList<Pair> bucket = bucketOf(key);
+    if (bucket != null) {
+      for (Pair pair : bucket) {
+        if (pair.key.equals(key)) {
+          return pair;
+        }
+      }
+    }
+    return null;
+  }
+
+  // Adds a pair to its bucket in the provided table, without checking for duplicates
+  private void addToTable(LinkedList<Pair>[] target, Pair pair) {
+    int index = indexOf(pair.key, target.length);
+    if (target[index] == null) {
+      target[index] = new LinkedList<>();
+    }
+    target[index].add(pair);
+  }
+
+  /**
+   * Moves the next MIGRATION_STEP buckets of the old table into the current table, and drops the
+   * old table once all of its buckets are moved.
+   */
+  private void migrateStep() {
+    if (oldTable == null) {
+      return;
+    }
+    int stop = Math.min(oldTable.length, migrated + MIGRATION_STEP);
+    for (; migrated < stop; migrated++) {
+      if (oldTable[migrated] != null) {
+        for (Pair pair : oldTable[migrated]) {
+          addToTable(table, pair);
+        }
+        oldTable[migrated] = null;
+      }
+    }
+    if (migrated == oldTable.length) {
+      oldTable = null;
+    }
+  }
+
+  /**
+   * Resizes the hashtable to twice its current size. The entries are rehashed right away, or in
+   * incremental resize mode by the operations that follow.
    */
   @SuppressWarnings("unchecked")
   private void resize() {
-    LinkedList<Pair>[] oldTable = table;
-    table = new LinkedList[oldTable.length * 2];
-    size = 0;
-
-    for (LinkedList<Pair> bucket : oldTable) {
+    // a resize that is still in progress is finished before the next one starts
+    while (oldTable != null) {
+      migrateStep();
+    }
+    LinkedList<Pair>[] previous = table;
+    table = new LinkedList[previous.length * 2];
+    if (incrementalResize) {
+      oldTable = previous;
+      migrated = 0;
+      return;
+    }
+    for (LinkedList<Pair> bucket : previous) {
       if (bucket != null) {
         for (Pair pair : bucket) {
-          put(pair.key, pair.value); // Rehash
+          addToTable(table, pair); // Rehash
         }
       }
     }
@@ -420,5 +514,68 @@ public class HashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueTy
     }
     Assertions.assertEquals(0, map.getSize(), "Map should be empty after removing all elements");
   }
-}
 
+  /**
+   * Tests that in incremental resize mode the put that fills the table only starts the resize, and
+   * that later operations move the remaining buckets while every key stays reachable.
+   */
+  @Test
+  public void testIncrementalResizeSpreadsMigration() {
+    HashtableMap<Integer, Integer> map = new HashtableMap<>(16, true);
+    for (int i = 0; i < 12; i++) {
+      map.put(i, i);
+    }
+    Assertions.assertEquals(32, map.getCapacity(), "Capacity should double at the load limit");
+    Assertions.assertTrue(map.isResizing(), "The resize should not have finished in one put");
+    Assertions.assertEquals(0, map.migrated, "No old bucket should have moved yet");
+    for (int i = 0; i < 12; i++) {
+      Assertions.assertEquals(i, map.get(i), "Key " + i + " should still be found");
+    }
+
+    map.put(12, 12);
+    Assertions.assertTrue(map.migrated <= MIGRATION_STEP, "One put should move a few buckets");
+    for (int i = 13; map.isResizing(); i++) {
+      map.put(i, i);
+    }
+    Assertions.assertTrue(map.getSize() < 24, "The resize should finish before the next one");
+    for (int i = 0; i < map.getSize(); i++) {
+      Assertions.assertEquals(i, map.get(i), "Key " + i + " should map to value " + i);
+    }
+    map.clear();
+    Assertions.assertFalse(map.isResizing(), "Clearing should drop the old table");
+    Assertions.assertFalse(map.containsKey(0), "Map should be empty after clear");
+  }
+
+  /**
+   * Tests random puts and removes in incremental resize mode against java.util.HashMap, so that
+   * keys are found, rejected as duplicates and removed from both tables mid-resize.
+   */
+  @Test
+  public void testIncrementalResizeMatchesHashMap() {
+    Random random = new Random(23);
+    HashtableMap<Integer, Integer> map = new HashtableMap<>(2, true);
+    Map<Integer, Integer> expected = new HashMap<>();
+    for (int i = 0; i < 50000; i++) {
+      int key = random.nextInt(5000) - 2500;
+      if (random.nextInt(4) == 0) {
+        if (expected.containsKey(key)) {
+          Assertions.assertEquals(expected.remove(key), map.remove(key));
+        } else {
+          Assertions.assertThrows(NoSuchElementException.class, () -> map.remove(key));
+        }
+      } else if (expected.containsKey(key)) {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> map.put(key, 0));
+      } else {
+        expected.put(key, i);
+        map.put(key, i);
+      }
+      Assertions.assertEquals(expected.size(), map.getSize());
+    }
+    for (int key = -2500; key < 2500; key++) {
+      Assertions.assertEquals(expected.containsKey(key), map.containsKey(key));
+      if (expected.containsKey(key)) {
+        Assertions.assertEquals(expected.get(key), map.get(key));
+      }
+    }
+  }
+}
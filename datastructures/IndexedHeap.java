@@ -0,0 +1,265 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * This class implements an indexed d-ary min-heap of int handles ordered by double keys. Each
+ * handle is stored at most once, and the heap keeps track of where every handle sits so that the
+ * key of a queued handle can be decreased in place. When the handles are graph node ids this bounds
+ * the heap to one entry per node and avoids allocating an object for every queued key.
+ */
+public class IndexedHeap {
+
+  private static final int DEFAULT_CAPACITY = 32;
+  private static final int DEFAULT_ARITY = 4;
+
+  private final int arity; // number of children of each heap slot
+  private int[] heap; // handles in heap order
+  private int[] position; // slot of each handle within heap, or -1 when it is not queued
+  private double[] keys; // current key of each handle
+  private int size; // number of handles currently queued
+
+  /**
+   * Constructs a new IndexedHeap for handles in [0, capacity) with the provided arity.
+   *
+   * @param capacity the initial range of handles this heap can hold
+   * @param arity    the number of children per heap slot, at least 2
+   * @throws IllegalArgumentException if arity is less than 2
+   */
+  public IndexedHeap(int capacity, int arity) {
+    if (arity < 2)
+      throw new IllegalArgumentException("arity must be at least 2");
+    this.arity = arity;
+    this.heap = new int[Math.max(1, capacity)];
+    this.position = new int[heap.length];
+    this.keys = new double[heap.length];
+    Arrays.fill(position, -1);
+    this.size = 0;
+  }
+
+  /**
+   * Constructs a new 4-ary IndexedHeap for handles in [0, capacity).
+   *
+   * @param capacity the initial range of handles this heap can hold
+   */
+  public IndexedHeap(int capacity) {
+    this(capacity, DEFAULT_ARITY);
+  }
+
+  /**
+   * Constructs a new 4-ary IndexedHeap with the default capacity.
+   */
+  public IndexedHeap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Checks whether any handles are queued.
+   *
+   * @return true if no handles are queued, and false otherwise
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Retrieves the number of handles that are queued.
+   *
+   * @return the number of queued handles
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Checks whether a handle is queued.
+   *
+   * @param handle the handle to check
+   * @return true if the handle is queued, and false otherwise
+   */
+  public boolean contains(int handle) {
+    return handle >= 0 && handle < position.length && position[handle] != -1;
+  }
+
+  /**
+   * Retrieves the key of a queued handle.
+   *
+   * @param handle the handle to look up
+   * @return the key of that handle
+   * @throws NoSuchElementException when the handle is not queued
+   */
+  public double keyOf(int handle) {
+    if (!contains(handle))
+      throw new NoSuchElementException("handle " + handle + " is not queued");
+    return keys[handle];
+  }
+
+  /**
+   * Queues a handle with the provided key, or lowers the key of a handle that is already queued.
+   * Nothing changes when the handle is queued with a key that is already lower or equal.
+   *
+   * @param handle the non-negative handle to queue
+   * @param key    the key for that handle
+   * @return true if the handle was queued or its key was lowered, and false otherwise
+   */
+  public boolean insertOrDecrease(int handle, double key) {
+    if (contains(handle)) {
+      if (key >= keys[handle])
+        return false;
+      keys[handle] = key;
+      siftUp(position[handle]);
+      return true;
+    }
+    if (handle >= position.length)
+      grow(handle + 1);
+    keys[handle] = key;
+    heap[size] = handle;
+    position[handle] = size;
+    siftUp(size++);
+    return true;
+  }
+
+  /**
+   * Retrieves the smallest key among the queued handles.
+   *
+   * @return the smallest queued key
+   * @throws NoSuchElementException when no handles are queued
+   */
+  public double peekKey() {
+    if (size == 0)
+      throw new NoSuchElementException("heap is empty");
+    return keys[heap[0]];
+  }
+
+  /**
+   * Removes and returns the handle with the smallest key.
+   *
+   * @return the handle that had the smallest key
+   * @throws NoSuchElementException when no handles are queued
+   */
+  public int poll() {
+    if (size == 0)
+      throw new NoSuchElementException("heap is empty");
+    int min = heap[0];
+    position[min] = -1;
+    size--;
+    if (size > 0) {
+      heap[0] = heap[size];
+      position[heap[0]] = 0;
+      siftDown(0);
+    }
+    return min;
+  }
+
+  /**
+   * Removes all queued handles. This takes time proportional to the number of queued handles
+   * rather than to the capacity of the heap.
+   */
+  public void clear() {
+    for (int i = 0; i < size; i++)
+      position[heap[i]] = -1;
+    size = 0;
+  }
+
+  // moves the handle in slot i up toward the root until its parent's key is no larger
+  private void siftUp(int i) {
+    int handle = heap[i];
+    double key = keys[handle];
+    while (i > 0) {
+      int parent = (i - 1) / arity;
+      if (keys[heap[parent]] <= key)
+        break;
+      heap[i] = heap[parent];
+      position[heap[i]] = i;
+      i = parent;
+    }
+    heap[i] = handle;
+    position[handle] = i;
+  }
+
+  // moves the handle in slot i down until none of its children have a smaller key
+  private void siftDown(int i) {
+    int handle = heap[i];
+    double key = keys[handle];
+    while (true) {
+      int first = i * arity + 1;
+      if (first >= size)
+        break;
+      int last = Math.min(first + arity, size);
+      int best = first;
+      for (int child = first + 1; child < last; child++)
+        if (keys[heap[child]] < keys[heap[best]])
+          best = child;
+      if (keys[heap[best]] >= key)
+        break;
+      heap[i] = heap[best];
+      position[heap[i]] = i;
+      i = best;
+    }
+    heap[i] = handle;
+    position[handle] = i;
+  }
+
+  // widens the range of handles this heap can hold to at least minCapacity
+  private void grow(int minCapacity) {
+    int capacity = Math.max(minCapacity, position.length * 2);
+    int oldCapacity = position.length;
+    heap = Arrays.copyOf(heap, capacity);
+    keys = Arrays.copyOf(keys, capacity);
+    position = Arrays.copyOf(position, capacity);
+    Arrays.fill(position, oldCapacity, capacity, -1);
+  }
+
+  // JUnit Tests
+
+  /**
+   * Tests that handles are polled in key order, and that decreasing a key moves its handle forward
+   * while a larger key is ignored.
+   */
+  @Test
+  public void testPollOrderAndDecreaseKey() {
+    IndexedHeap heap = new IndexedHeap(8);
+    heap.insertOrDecrease(0, 5.0);
+    heap.insertOrDecrease(1, 3.0);
+    heap.insertOrDecrease(2, 4.0);
+    Assertions.assertTrue(heap.insertOrDecrease(0, 1.0), "Lower key should be accepted");
+    Assertions.assertFalse(heap.insertOrDecrease(2, 9.0), "Higher key should be ignored");
+    Assertions.assertEquals(3, heap.size());
+    Assertions.assertEquals(1.0, heap.peekKey());
+    Assertions.assertEquals(0, heap.poll());
+    Assertions.assertEquals(1, heap.poll());
+    Assertions.assertEquals(2, heap.poll());
+    Assertions.assertTrue(heap.isEmpty());
+    Assertions.assertThrows(NoSuchElementException.class, () -> heap.poll());
+  }
+
+  /**
+   * Tests the heap against a sorted copy of many random keys, including handles beyond the initial
+   * capacity and a clear() in the middle.
+   */
+  @Test
+  public void testRandomKeysAgainstSort() {
+    Random random = new Random(400);
+    for (int arity = 2; arity <= 8; arity += 3) {
+      IndexedHeap heap = new IndexedHeap(4, arity);
+      heap.insertOrDecrease(7, 0.5);
+      heap.clear();
+      Assertions.assertFalse(heap.contains(7), "clear() should remove every handle");
+
+      double[] expected = new double[1000];
+      for (int handle = 0; handle < expected.length; handle++) {
+        expected[handle] = random.nextDouble();
+        heap.insertOrDecrease(handle, expected[handle] + 1.0);
+        heap.insertOrDecrease(handle, expected[handle]);
+      }
+      Arrays.sort(expected);
+      for (double key : expected) {
+        Assertions.assertEquals(key, heap.peekKey());
+        heap.poll();
+      }
+    }
+  }
+}
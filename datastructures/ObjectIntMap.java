@@ -0,0 +1,312 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * This class implements a hashtable-based map from objects to primitive ints, for looking up the
+ * dense id of a node by its data. It is laid out like OpenHashtableMap, with keys, spread hash codes
+ * and values in parallel arrays and Robin Hood linear probing, but keeps its values in an int[], so
+ * neither storing nor reading an id boxes it into an Integer. getOrDefault() answers a lookup that
+ * may miss with a single probe sequence, where containsKey() followed by get() would take two.
+ *
+ * @param <KeyType> the type of keys maintained by this map
+ */
+public class ObjectIntMap<KeyType> {
+
+  private static final int DEFAULT_CAPACITY = 32;
+  private static final double MAX_LOAD_FACTOR = 0.8;
+
+  // the key, value and spread hash code in each slot, where a hash of 0 marks an empty slot
+  protected Object[] keys;
+  protected int[] values;
+  protected int[] hashes;
+  private int size; // Number of key-value pairs in the hashtable
+
+  /**
+   * Constructs a new ObjectIntMap with at least the specified capacity.
+   *
+   * @param capacity the initial capacity of the hashtable, rounded up to a power of two
+   */
+  public ObjectIntMap(int capacity) {
+    int powerOfTwo = 2;
+    while (powerOfTwo < capacity)
+      powerOfTwo *= 2;
+    keys = new Object[powerOfTwo];
+    values = new int[powerOfTwo];
+    hashes = new int[powerOfTwo];
+    size = 0;
+  }
+
+  /**
+   * Constructs a new ObjectIntMap with the default capacity.
+   */
+  public ObjectIntMap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  // Spreads a key's hash code as OpenHashtableMap does, never returning the empty marker 0
+  private static int hash(Object key) {
+    int h = key.hashCode() * 0x9E3779B9;
+    h ^= h >>> 16;
+    return h == 0 ? 1 : h;
+  }
+
+  // The number of slots an entry with this hash lies past its home slot
+  private int probeDistance(int hash, int slot) {
+    return (slot - hash) & (hashes.length - 1);
+  }
+
+  /**
+   * Finds the slot holding key.
+   *
+   * @return the slot of key, or -1 if it is not stored in this map
+   */
+  private int slotOf(Object key) {
+    int hash = hash(key);
+    int mask = hashes.length - 1;
+    for (int slot = hash & mask, distance = 0; ; slot = (slot + 1) & mask, distance++) {
+      int slotHash = hashes[slot];
+      if (slotHash == 0 || probeDistance(slotHash, slot) < distance)
+        return -1;
+      if (slotHash == hash && key.equals(keys[slot]))
+        return slot;
+    }
+  }
+
+  /**
+   * Adds a new key,value pair/mapping to this collection.
+   *
+   * @param key   the key of the key,value pair
+   * @param value the value that key maps to
+   * @throws IllegalArgumentException if key already maps to a value
+   * @throws NullPointerException     if key is null
+   */
+  public void put(KeyType key, int value) throws IllegalArgumentException, NullPointerException {
+    if (key == null) {
+      throw new NullPointerException("Key cannot be null");
+    }
+    if (slotOf(key) != -1) {
+      throw new IllegalArgumentException("Key already exists");
+    }
+    if (size + 1 > hashes.length * MAX_LOAD_FACTOR) {
+      resize();
+    }
+    insert(hash(key), key, value);
+    size++;
+  }
+
+  // Places an entry whose key is not in the table yet, displacing entries closer to their home
+  private void insert(int hash, Object key, int value) {
+    int mask = hashes.length - 1;
+    for (int slot = hash & mask, distance = 0; ; slot = (slot + 1) & mask, distance++) {
+      int slotHash = hashes[slot];
+      if (slotHash == 0) {
+        hashes[slot] = hash;
+        keys[slot] = key;
+        values[slot] = value;
+        return;
+      }
+      int slotDistance = probeDistance(slotHash, slot);
+      if (slotDistance < distance) {
+        Object displacedKey = keys[slot];
+        int displacedValue = values[slot];
+        hashes[slot] = hash;
+        keys[slot] = key;
+        values[slot] = value;
+        hash = slotHash;
+        key = displacedKey;
+        value = displacedValue;
+        distance = slotDistance;
+      }
+    }
+  }
+
+  /**
+   * Checks whether a key maps to a value in this collection.
+   *
+   * @param key the key to check
+   * @return true if the key maps to a value, and false is the key doesn't map to a value
+   */
+  public boolean containsKey(Object key) {
+    return slotOf(key) != -1;
+  }
+
+  /**
+   * Retrieves the specific value that a key maps to.
+   *
+   * @param key the key to look up
+   * @return the value that key maps to
+   * @throws NoSuchElementException when key is not stored in this collection
+   */
+  public int get(Object key) throws NoSuchElementException {
+    int slot = slotOf(key);
+    if (slot == -1) {
+      throw new NoSuchElementException("Key not found");
+    }
+    return values[slot];
+  }
+
+  /**
+   * Retrieves the value that a key maps to, or a default value when the key is not stored.
+   *
+   * @param key          the key to look up
+   * @param defaultValue the value to return when key is not stored in this collection
+   * @return the value that key maps to, or defaultValue
+   */
+  public int getOrDefault(Object key, int defaultValue) {
+    int slot = slotOf(key);
+    return slot == -1 ? defaultValue : values[slot];
+  }
+
+  /**
+   * Changes the value of a key that is already stored in this collection.
+   *
+   * @param key   the key whose value to change
+   * @param value the new value that key maps to
+   * @throws NoSuchElementException when key is not stored in this collection
+   */
+  public void replace(Object key, int value) throws NoSuchElementException {
+    int slot = slotOf(key);
+    if (slot == -1) {
+      throw new NoSuchElementException("Key not found");
+    }
+    values[slot] = value;
+  }
+
+  /**
+   * Remove the mapping for a key from this collection.
+   *
+   * @param key the key whose mapping to remove
+   * @return the value that the removed key mapped to
+   * @throws NoSuchElementException when key is not stored in this collection
+   */
+  public int remove(Object key) throws NoSuchElementException {
+    int slot = slotOf(key);
+    if (slot == -1) {
+      throw new NoSuchElementException("Key not found");
+    }
+    int value = values[slot];
+    // shift the following entries back until one is already in its home slot
+    int mask = hashes.length - 1;
+    int next = (slot + 1) & mask;
+    while (hashes[next] != 0 && probeDistance(hashes[next], next) != 0) {
+      hashes[slot] = hashes[next];
+      keys[slot] = keys[next];
+      values[slot] = values[next];
+      slot = next;
+      next = (next + 1) & mask;
+    }
+    hashes[slot] = 0;
+    keys[slot] = null;
+    size--;
+    return value;
+  }
+
+  /**
+   * Removes all key,value pairs from this collection.
+   */
+  public void clear() {
+    Arrays.fill(hashes, 0);
+    Arrays.fill(keys, null);
+    size = 0;
+  }
+
+  /**
+   * Retrieves the number of keys stored in this collection.
+   *
+   * @return the number of keys stored in this collection
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Retrieves this collection's capacity.
+   *
+   * @return the size of te underlying array for this collection
+   */
+  public int getCapacity() {
+    return hashes.length;
+  }
+
+  // Doubles the table and places every entry again, reusing the hash codes stored with them
+  private void resize() {
+    Object[] oldKeys = keys;
+    int[] oldValues = values;
+    int[] oldHashes = hashes;
+    keys = new Object[oldHashes.length * 2];
+    values = new int[oldHashes.length * 2];
+    hashes = new int[oldHashes.length * 2];
+    for (int slot = 0; slot < oldHashes.length; slot++) {
+      if (oldHashes[slot] != 0) {
+        insert(oldHashes[slot], oldKeys[slot], oldValues[slot]);
+      }
+    }
+  }
+
+  // JUnit Tests
+
+  /**
+   * Tests the map contract: duplicate, null and missing keys, default values, replacing a value,
+   * clearing, and a capacity that grows as keys are added.
+   */
+  @Test
+  public void testMapContract() {
+    ObjectIntMap<String> map = new ObjectIntMap<>(3);
+    Assertions.assertEquals(4, map.getCapacity());
+    map.put("key1", 1);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> map.put("key1", 2));
+    Assertions.assertThrows(NullPointerException.class, () -> map.put(null, 1));
+    Assertions.assertThrows(NoSuchElementException.class, () -> map.get("keyX"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> map.remove("keyX"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> map.replace("keyX", 1));
+    Assertions.assertEquals(-1, map.getOrDefault("keyX", -1));
+    Assertions.assertEquals(1, map.getOrDefault("key1", -1));
+    map.replace("key1", 0);
+    Assertions.assertEquals(0, map.get("key1"));
+
+    for (int i = 2; i <= 50; i++)
+      map.put("key" + i, i);
+    Assertions.assertEquals(50, map.getSize());
+    Assertions.assertEquals(64, map.getCapacity());
+    Assertions.assertEquals(7, map.remove("key7"));
+    Assertions.assertFalse(map.containsKey("key7"));
+    Assertions.assertEquals(49, map.getSize());
+    map.clear();
+    Assertions.assertEquals(0, map.getSize());
+    Assertions.assertFalse(map.containsKey("key1"));
+  }
+
+  /**
+   * Tests random puts, replacements and removes against java.util.HashMap, with keys drawn from a
+   * small range so that entries are often displaced and shifted back.
+   */
+  @Test
+  public void testMatchesHashMap() {
+    Random random = new Random(25);
+    ObjectIntMap<Integer> map = new ObjectIntMap<>(2);
+    Map<Integer, Integer> expected = new HashMap<>();
+    for (int i = 0; i < 20000; i++) {
+      int key = random.nextInt(500) * 64; // equal low bits, so only the spread hash separates them
+      int action = random.nextInt(3);
+      if (action == 0 && expected.containsKey(key)) {
+        Assertions.assertEquals(expected.remove(key), map.remove(key));
+      } else if (action == 1 && expected.containsKey(key)) {
+        expected.put(key, i);
+        map.replace(key, i);
+      } else if (!expected.containsKey(key)) {
+        expected.put(key, i);
+        map.put(key, i);
+      }
+      Assertions.assertEquals(expected.size(), map.getSize());
+    }
+    for (int key = 0; key < 500 * 64; key += 64) {
+      Assertions.assertEquals(expected.getOrDefault(key, -1), map.getOrDefault(key, -1));
+    }
+  }
+}
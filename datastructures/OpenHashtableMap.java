@@ -0,0 +1,350 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * This class implements a hashtable-based map that resolves collisions with open addressing
+ * instead of chaining. Keys, values and hash codes are kept in three parallel arrays, so an entry
+ * costs no objects of its own, and a lookup reads consecutive slots instead of following list
+ * nodes. The capacity is always a power of two, and hash codes are spread before they are masked
+ * to a slot, so that keys whose hash codes only differ in their high bits still land apart.
+ *
+ * Collisions are resolved with Robin Hood linear probing: an entry that has probed further from its
+ * home slot takes the place of one that has probed less, which keeps every entry close to its home
+ * slot and lets a lookup for a missing key stop as soon as it passes entries closer to home than
+ * it. Removing an entry shifts the entries after it back by one slot, so no tombstones are left.
+ *
+ * @param <KeyType>   the type of keys maintained by this map
+ * @param <ValueType> the type of mapped values
+ */
+public class OpenHashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueType> {
+
+  private static final int DEFAULT_CAPACITY = 32;
+  private static final double MAX_LOAD_FACTOR = 0.8;
+
+  // the key, value and spread hash code in each slot, where a hash of 0 marks an empty slot
+  protected Object[] keys;
+  protected Object[] values;
+  protected int[] hashes;
+  private int size; // Number of key-value pairs in the hashtable
+
+  /**
+   * Constructs a new OpenHashtableMap with at least the specified capacity.
+   *
+   * @param capacity the initial capacity of the hashtable, rounded up to a power of two
+   */
+  public OpenHashtableMap(int capacity) {
+    int powerOfTwo = 2;
+    while (powerOfTwo < capacity)
+      powerOfTwo *= 2;
+    keys = new Object[powerOfTwo];
+    values = new Object[powerOfTwo];
+    hashes = new int[powerOfTwo];
+    size = 0;
+  }
+
+  /**
+   * Constructs a new OpenHashtableMap with the default capacity.
+   */
+  public OpenHashtableMap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Spreads the bits of a key's hash code over the whole int, so that masking off the low bits
+   * still depends on all of them, and never returns 0, which marks empty slots.
+   */
+  private static int hash(Object key) {
+    int h = key.hashCode() * 0x9E3779B9;
+    h ^= h >>> 16;
+    return h == 0 ? 1 : h;
+  }
+
+  // The number of slots an entry with this hash lies past its home slot
+  private int probeDistance(int hash, int slot) {
+    return (slot - hash) & (hashes.length - 1);
+  }
+
+  /**
+   * Finds the slot holding key.
+   *
+   * @return the slot of key, or -1 if it is not stored in this map
+   */
+  private int slotOf(Object key) {
+    int hash = hash(key);
+    int mask = hashes.length - 1;
+    for (int slot = hash & mask, distance = 0; ; slot = (slot + 1) & mask, distance++) {
+      int slotHash = hashes[slot];
+      // an empty slot, or an entry closer to its home than key would be, ends the probe
+      if (slotHash == 0 || probeDistance(slotHash, slot) < distance)
+        return -1;
+      if (slotHash == hash && key.equals(keys[slot]))
+        return slot;
+    }
+  }
+
+  /**
+   * Adds a new key,value pair/mapping to this collection.
+   *
+   * @param key   the key of the key,value pair
+   * @param value the value that key maps to
+   * @throws IllegalArgumentException if key already maps to a value
+   * @throws NullPointerException     if key is null
+   */
+  @Override
+  public void put(KeyType key, ValueType value)
+      throws IllegalArgumentException, NullPointerException {
+    if (key == null) {
+      throw new NullPointerException("Key cannot be null");
+    }
+    if (slotOf(key) != -1) {
+      throw new IllegalArgumentException("Key already exists");
+    }
+    if (size + 1 > hashes.length * MAX_LOAD_FACTOR) {
+      resize();
+    }
+    insert(hash(key), key, value);
+    size++;
+  }
+
+  /**
+   * Places an entry whose key is not in the table yet, displacing entries that lie closer to their
+   * home slots than it does.
+   */
+  private void insert(int hash, Object key, Object value) {
+    int mask = hashes.length - 1;
+    for (int slot = hash & mask, distance = 0; ; slot = (slot + 1) & mask, distance++) {
+      int slotHash = hashes[slot];
+      if (slotHash == 0) {
+        hashes[slot] = hash;
+        keys[slot] = key;
+        values[slot] = value;
+        return;
+      }
+      int slotDistance = probeDistance(slotHash, slot);
+      if (slotDistance < distance) {
+        // take this slot, and carry on placing the entry that was in it
+        Object displacedKey = keys[slot];
+        Object displacedValue = values[slot];
+        hashes[slot] = hash;
+        keys[slot] = key;
+        values[slot] = value;
+        hash = slotHash;
+        key = displacedKey;
+        value = displacedValue;
+        distance = slotDistance;
+      }
+    }
+  }
+
+  /**
+   * Checks whether a key maps to a value in this collection.
+   *
+   * @param key the key to check
+   * @return true if the key maps to a value, and false is the key doesn't map to a value
+   */
+  @Override
+  public boolean containsKey(KeyType key) {
+    return slotOf(key) != -1;
+  }
+
+  /**
+   * Retrieves the specific value that a key maps to.
+   *
+   * @param key the key to look up
+   * @return the value that key maps to
+   * @throws NoSuchElementException when key is not stored in this collection
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public ValueType get(KeyType key) throws NoSuchElementException {
+    int slot = slotOf(key);
+    if (slot == -1) {
+      throw new NoSuchElementException("Key not found");
+    }
+    return (ValueType) values[slot];
+  }
+
+  /**
+   * Remove the mapping for a key from this collection.
+   *
+   * @param key the key whose mapping to remove
+   * @return the value that the removed key mapped to
+   * @throws NoSuchElementException when key is not stored in this collection
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public ValueType remove(KeyType key) throws NoSuchElementException {
+    int slot = slotOf(key);
+    if (slot == -1) {
+      throw new NoSuchElementException("Key not found");
+    }
+    ValueType value = (ValueType) values[slot];
+    // shift the following entries back until one is already in its home slot
+    int mask = hashes.length - 1;
+    int next = (slot + 1) & mask;
+    while (hashes[next] != 0 && probeDistance(hashes[next], next) != 0) {
+      hashes[slot] = hashes[next];
+      keys[slot] = keys[next];
+      values[slot] = values[next];
+      slot = next;
+      next = (next + 1) & mask;
+    }
+    hashes[slot] = 0;
+    keys[slot] = null;
+    values[slot] = null;
+    size--;
+    return value;
+  }
+
+  /**
+   * Removes all key,value pairs from this collection.
+   */
+  @Override
+  public void clear() {
+    Arrays.fill(hashes, 0);
+    Arrays.fill(keys, null);
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  /**
+   * Retrieves the number of keys stored in this collection.
+   *
+   * @return the number of keys stored in this collection
+   */
+  @Override
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Retrieves this collection's capacity.
+   *
+   * @return the size of te underlying array for this collection
+   */
+  @Override
+  public int getCapacity() {
+    return hashes.length;
+  }
+
+  /**
+   * Resizes the hashtable to twice its current size and places every entry again, reusing the
+   * hash codes stored with them.
+   */
+  private void resize() {
+    Object[] oldKeys = keys;
+    Object[] oldValues = values;
+    int[] oldHashes = hashes;
+    keys = new Object[oldHashes.length * 2];
+    values = new Object[oldHashes.length * 2];
+    hashes = new int[oldHashes.length * 2];
+    for (int slot = 0; slot < oldHashes.length; slot++) {
+      if (oldHashes[slot] != 0) {
+        insert(oldHashes[slot], oldKeys[slot], oldValues[slot]);
+      }
+    }
+  }
+
+  // JUnit Tests
+
+  // A key that is equal to another when their values are, but shares its hash code with every key
+  // in its group of eight values
+  private static class CollidingKey {
+    final int value;
+
+    CollidingKey(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public int hashCode() {
+      return value / 8;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof CollidingKey && ((CollidingKey) other).value == value;
+    }
+  }
+
+  /**
+   * Tests the basic MapADT contract: duplicate keys, null keys, missing keys, clearing, and a
+   * capacity that is rounded up to a power of two and grows as keys are added.
+   */
+  @Test
+  public void testMapContract() {
+    OpenHashtableMap<String, Integer> map = new OpenHashtableMap<>(5);
+    Assertions.assertEquals(8, map.getCapacity());
+    map.put("key1", 1);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> map.put("key1", 2));
+    Assertions.assertThrows(NullPointerException.class, () -> map.put(null, 1));
+    Assertions.assertThrows(NoSuchElementException.class, () -> map.get("keyX"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> map.remove("keyX"));
+    Assertions.assertEquals(1, map.get("key1"));
+
+    for (int i = 2; i <= 50; i++)
+      map.put("key" + i, i);
+    Assertions.assertEquals(50, map.getSize());
+    Assertions.assertEquals(64, map.getCapacity());
+    Assertions.assertEquals(7, map.remove("key7"));
+    Assertions.assertFalse(map.containsKey("key7"));
+    Assertions.assertEquals(49, map.getSize());
+    map.clear();
+    Assertions.assertEquals(0, map.getSize());
+    Assertions.assertFalse(map.containsKey("key1"));
+  }
+
+  /**
+   * Tests random puts and removes against java.util.HashMap, with keys whose hash codes collide in
+   * groups, so that long probe sequences are displaced and shifted back by removals.
+   */
+  @Test
+  public void testMatchesHashMapWithCollisions() {
+    Random random = new Random(8);
+    OpenHashtableMap<CollidingKey, Integer> map = new OpenHashtableMap<>(4);
+    Map<Integer, Integer> expected = new HashMap<>();
+    for (int i = 0; i < 20000; i++) {
+      int value = random.nextInt(400);
+      CollidingKey key = new CollidingKey(value);
+      if (random.nextInt(3) == 0) {
+        if (expected.containsKey(value))
+          Assertions.assertEquals(expected.remove(value), map.remove(key));
+        else
+          Assertions.assertThrows(NoSuchElementException.class, () -> map.remove(key));
+      } else if (!expected.containsKey(value)) {
+        expected.put(value, i);
+        map.put(key, i);
+      }
+      Assertions.assertEquals(expected.size(), map.getSize());
+    }
+    for (int value = 0; value < 400; value++) {
+      CollidingKey key = new CollidingKey(value);
+      Assertions.assertEquals(expected.containsKey(value), map.containsKey(key));
+      if (expected.containsKey(value))
+        Assertions.assertEquals(expected.get(value), map.get(key));
+    }
+  }
+
+  /**
+   * Tests that the map works as the node map of a graph.
+   */
+  @Test
+  public void testAsGraphNodeMap() {
+    DijkstraGraph<String, Integer> graph = new DijkstraGraph<>(new OpenHashtableMap<>());
+    for (int i = 0; i < 100; i++) {
+      graph.insertNode("node" + i);
+      if (i > 0)
+        graph.insertEdge("node" + (i - 1), "node" + i, 1);
+    }
+    Assertions.assertTrue(graph.removeNode("node50"));
+    Assertions.assertEquals(49, graph.shortestPathCost("node0", "node49"));
+    Assertions.assertFalse(graph.isReachable("node0", "node99"));
+    Assertions.assertEquals(99, graph.getNodeCount());
+  }
+}
@@ -0,0 +1,300 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+/**
+ * This AllPairsTable class stores the cost of the shortest path between every pair of nodes in a
+ * CompactGraph, together with the first node to step to along each of those paths. Every query is
+ * then answered with array lookups: the cost is read directly, and the path is rebuilt by stepping
+ * from next hop to next hop. The table takes space proportional to the square of the number of
+ * nodes, so it is meant for graphs of a few hundred or a few thousand nodes, and it can be saved to
+ * a file and loaded again to avoid recomputing it.
+ *
+ * @param <NodeType> is the data type stored at each graph node
+ */
+public class AllPairsTable<NodeType> {
+
+  // identifies table files, followed by the format version
+  private static final int FILE_MAGIC = 0x41505354;
+  private static final int FILE_FORMAT = 1;
+  // the largest array most JVMs can allocate, which bounds the number of pairs a table can hold
+  private static final int MAX_CELLS = Integer.MAX_VALUE - 8;
+
+  protected final CompactGraph<NodeType> graph;
+  protected final int nodeCount;
+
+  // the cost from s to t is cost[s * nodeCount + t], infinite when t cannot be reached from s
+  protected final double[] cost;
+  // the node after s on the path from s to t is nextHop[s * nodeCount + t], -1 when s == t or t
+  // cannot be reached from s
+  protected final int[] nextHop;
+
+  /**
+   * Computes the table for the provided graph by running Dijkstra's algorithm backward from every
+   * node, in parallel on the common ForkJoinPool.
+   *
+   * @param graph the snapshot to compute the table for
+   * @throws IllegalArgumentException if the graph has too many nodes for its pairs to fit in one
+   *                                  array
+   */
+  public AllPairsTable(CompactGraph<NodeType> graph) {
+    this.graph = graph;
+    this.nodeCount = graph.getNodeCount();
+    int cells = cellCount(nodeCount);
+    this.cost = new double[cells];
+    this.nextHop = new int[cells];
+    IntStream.range(0, nodeCount).parallel().forEach(this::computeColumn);
+  }
+
+  // Constructor used when loading a table that was saved for this graph.
+  private AllPairsTable(CompactGraph<NodeType> graph, double[] cost, int[] nextHop) {
+    this.graph = graph;
+    this.nodeCount = graph.getNodeCount();
+    this.cost = cost;
+    this.nextHop = nextHop;
+  }
+
+  /**
+   * Returns the number of entries a table for nodeCount nodes holds in each of its arrays.
+   *
+   * @param nodeCount the number of nodes in the graph
+   * @return nodeCount squared
+   * @throws IllegalArgumentException if nodeCount squared does not fit in one array
+   */
+  static int cellCount(int nodeCount) {
+    long cells = (long) nodeCount * nodeCount;
+    if (cells > MAX_CELLS)
+      throw new IllegalArgumentException("An all pairs table for " + nodeCount
+          + " nodes would need " + cells + " entries, but at most " + MAX_CELLS + " fit");
+    return (int) cells;
+  }
+
+  // Fills the column of target with one search backward from target. Every next hop toward target
+  // then comes from the same tree, so walking next hops always ends at target, even when edges of
+  // zero weight make several paths equally short.
+  private void computeColumn(int target) {
+    double[] dist = new double[nodeCount];
+    int[] next = new int[nodeCount];
+    graph.computeDistances(target, true, dist, next);
+    for (int v = 0; v < nodeCount; v++) {
+      cost[v * nodeCount + target] = dist[v];
+      nextHop[v * nodeCount + target] = dist[v] == Double.POSITIVE_INFINITY ? -1 : next[v];
+    }
+  }
+
+  /**
+   * Returns the snapshot this table was computed for.
+   *
+   * @return the graph this table answers queries on
+   */
+  public CompactGraph<NodeType> getGraph() {
+    return graph;
+  }
+
+  /**
+   * Looks up the cost of the shortest path from source to target.
+   *
+   * @param source the id of the starting node
+   * @param target the id of the destination node
+   * @return the cost of that path, or positive infinity when target cannot be reached from source
+   */
+  public double costOf(int source, int target) {
+    return cost[source * nodeCount + target];
+  }
+
+  /**
+   * Looks up the node after v on the shortest path from v to target. Following next hops from a
+   * node that reaches target walks that path in one array lookup per node.
+   *
+   * @param v      the id of a node on the path
+   * @param target the id of the destination node
+   * @return the id of the next node on the path, or -1 when v is target or cannot reach it
+   */
+  public int nextHopOf(int v, int target) {
+    return nextHop[v * nodeCount + target];
+  }
+
+  /**
+   * Returns the list of data values from nodes along the shortest path from the node with the
+   * provided start value through the node with the provided end value.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return list of data item from node along this shortest path
+   * @throws NoSuchElementException when no path from start to end is found or when either start or
+   *                                end data do not correspond to a graph node
+   */
+  public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+    int source = graph.idOf(start);
+    int target = graph.idOf(end);
+    if (cost[source * nodeCount + target] == Double.POSITIVE_INFINITY)
+      throw new NoSuchElementException("No path exists between the specified nodes");
+    List<NodeType> path = new LinkedList<>();
+    path.add(start);
+    for (int v = source; v != target; ) {
+      v = nextHop[v * nodeCount + target];
+      path.add(graph.dataOf(v));
+    }
+    return path;
+  }
+
+  /**
+   * Returns the cost of the shortest path from the node containing the start data to the node
+   * containing the end data.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return the cost of the shortest path between these nodes
+   * @throws NoSuchElementException when no path from start to end is found or when either start or
+   *                                end data do not correspond to a graph node
+   */
+  public double shortestPathCost(NodeType start, NodeType end) {
+    double result = cost[graph.idOf(start) * nodeCount + graph.idOf(end)];
+    if (result == Double.POSITIVE_INFINITY)
+      throw new NoSuchElementException("No path exists between the specified nodes");
+    return result;
+  }
+
+  /**
+   * Writes this table to a file. Along with the costs and next hops, the file records each node's
+   * data as a string and a fingerprint of the edges, so that load() can tell whether the file
+   * still describes the graph it is loaded for.
+   *
+   * @param path the file to write
+   * @throws IOException if the file cannot be written
+   */
+  public void save(Path path) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(path)))) {
+      out.writeInt(FILE_MAGIC);
+      out.writeInt(FILE_FORMAT);
+      out.writeInt(nodeCount);
+      out.writeLong(fingerprint(graph));
+      for (int id = 0; id < nodeCount; id++)
+        out.writeUTF(String.valueOf(graph.dataOf(id)));
+      for (double value : cost)
+        out.writeDouble(value);
+      for (int value : nextHop)
+        out.writeInt(value);
+    }
+  }
+
+  /**
+   * Reads a table that was saved for the provided graph.
+   *
+   * @param path  the file to read
+   * @param graph the snapshot the table should answer queries on
+   * @return the loaded table
+   * @throws IOException if the file cannot be read, is not a table file, or was saved for a graph
+   *                     with different nodes or edges
+   * @throws IllegalArgumentException if the graph has too many nodes for its pairs to fit in one
+   *                                  array
+   */
+  public static <NodeType> AllPairsTable<NodeType> load(Path path, CompactGraph<NodeType> graph)
+      throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(path)))) {
+      if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_FORMAT)
+        throw new IOException("Not an all pairs table file: " + path);
+      int nodeCount = graph.getNodeCount();
+      if (in.readInt() != nodeCount || in.readLong() != fingerprint(graph))
+        throw new IOException("All pairs table " + path + " was saved for a different graph");
+      for (int id = 0; id < nodeCount; id++)
+        if (!in.readUTF().equals(String.valueOf(graph.dataOf(id))))
+          throw new IOException("All pairs table " + path + " was saved for a different graph");
+
+      int cells = cellCount(nodeCount);
+      double[] cost = new double[cells];
+      int[] nextHop = new int[cells];
+      for (int i = 0; i < cost.length; i++)
+        cost[i] = in.readDouble();
+      for (int i = 0; i < nextHop.length; i++)
+        nextHop[i] = in.readInt();
+      return new AllPairsTable<>(graph, cost, nextHop);
+    }
+  }
+
+  // a hash of the graph's adjacency arrays, which differs when any edge or weight differs
+  private static long fingerprint(CompactGraph<?> graph) {
+    long hash = graph.getNodeCount();
+    for (int offset : graph.offsets)
+      hash = hash * 31 + offset;
+    for (int target : graph.targets)
+      hash = hash * 31 + target;
+    for (double weight : graph.weights)
+      hash = hash * 31 + Double.doubleToLongBits(weight);
+    return hash;
+  }
+
+  // JUnit test methods
+
+  /**
+   * Checks that the table agrees with Dijkstra's algorithm on every pair of the lecture example.
+   */
+  @Test
+  public void testTableMatchesDijkstra() {
+    DijkstraGraph<String, Integer> source = DijkstraGraph.createGraphFromExample();
+    AllPairsTable<String> table = new AllPairsTable<>(source.freeze());
+    String[] names = {"A", "B", "C", "D", "E", "F", "G", "H"};
+    for (String start : names) {
+      for (String end : names) {
+        try {
+          double expected = source.shortestPathCost(start, end);
+          Assertions.assertEquals(expected, table.shortestPathCost(start, end));
+          Assertions.assertEquals(source.shortestPathData(start, end),
+              table.shortestPathData(start, end));
+        } catch (NoSuchElementException e) {
+          Assertions.assertThrows(NoSuchElementException.class,
+              () -> table.shortestPathCost(start, end));
+        }
+      }
+    }
+  }
+
+  /**
+   * Checks that a saved table loads back for the same graph, and is rejected for a changed graph.
+   */
+  @Test
+  public void testSaveAndLoad() throws IOException {
+    DijkstraGraph<String, Integer> source = DijkstraGraph.createGraphFromExample();
+    AllPairsTable<String> table = new AllPairsTable<>(source.freeze());
+    File file = File.createTempFile("allpairs", ".table");
+    file.deleteOnExit();
+    table.save(file.toPath());
+
+    AllPairsTable<String> loaded = AllPairsTable.load(file.toPath(), source.freeze());
+    Assertions.assertEquals(9, loaded.shortestPathCost("A", "G"));
+    Assertions.assertEquals(Arrays.asList("A", "C", "D", "F", "G"),
+        loaded.shortestPathData("A", "G"));
+
+    source.insertEdge("A", "G", 3);
+    Assertions.assertThrows(IOException.class,
+        () -> AllPairsTable.load(file.toPath(), source.freeze()));
+  }
+
+  /**
+   * Checks that the size of a table is computed without overflowing, and that graphs whose pairs
+   * do not fit in one array are rejected instead of wrapping around to a wrong size.
+   */
+  @Test
+  public void testCellCount() {
+    Assertions.assertEquals(64, cellCount(8));
+    Assertions.assertEquals(46340 * 46340, cellCount(46340));
+    // 46341 squared is just past Integer.MAX_VALUE, and 65536 squared wraps around to 0
+    Assertions.assertThrows(IllegalArgumentException.class, () -> cellCount(46341));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> cellCount(65536));
+  }
+}
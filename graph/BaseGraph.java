@@ -1,5 +1,6 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.LinkedList;
 import java.util.NoSuchElementException;
 
 /**
@@ -11,17 +12,155 @@ public class BaseGraph<NodeType, EdgeType extends Number>{
   // Each node contains unique data along with two lists of directed edges
   protected class Node {
     public NodeType data;
-    public List<Edge> edgesLeaving = new LinkedList<>();
-    public List<Edge> edgesEntering = new LinkedList<>();
+    public int id; // dense index of this node within nodesById
+    public EdgeList edgesLeaving = new EdgeList(true);
+    public EdgeList edgesEntering = new EdgeList(false);
 
     public Node(NodeType data) {
       this.data = data;
     }
   }
 
+  // Number of edges an EdgeList holds before it starts indexing them by neighbor
+  protected static final int EDGE_INDEX_THRESHOLD = 8;
+
+  /**
+   * The edges leaving or entering one node, stored in an array so that they can be iterated like
+   * any other list. Each edge is found by the node at its other end: a list with only a few edges
+   * simply scans its array, and a list with more than EDGE_INDEX_THRESHOLD edges also keeps a hash
+   * index from that node to the edge's position. Removing an edge moves the last edge into its
+   * position, so edges do not keep their insertion order.
+   */
+  protected class EdgeList extends AbstractList<Edge> {
+    private final boolean bySuccessor; // whether edges are found by successor or by predecessor
+    private Object[] edges;
+    private int size = 0;
+    private ObjectIntMap<Node> index = null; // position of each edge, once there are enough edges
+
+    /**
+     * Constructor for an empty list of edges.
+     *
+     * @param bySuccessor true for a list of leaving edges, which are found by their successor, or
+     *                    false for a list of entering edges, which are found by their predecessor
+     */
+    public EdgeList(boolean bySuccessor) {
+      this(bySuccessor, 2);
+    }
+
+    /**
+     * Constructor for an empty list of edges with room for capacity edges before it grows.
+     *
+     * @param bySuccessor true for a list of leaving edges, or false for a list of entering edges
+     * @param capacity    the number of edges to make room for
+     */
+    public EdgeList(boolean bySuccessor, int capacity) {
+      this.bySuccessor = bySuccessor;
+      this.edges = new Object[Math.max(2, capacity)];
+    }
+
+    private Node neighbor(Edge edge) {
+      return bySuccessor ? edge.successor : edge.predecessor;
+    }
+
+    /**
+     * Return the position of the edge connecting to a node, or -1 if there is no such edge
+     */
+    private int positionOf(Node neighbor) {
+      if (index != null)
+        return index.getOrDefault(neighbor, -1);
+      for (int i = 0; i < size; i++)
+        if (neighbor(get(i)) == neighbor)
+          return i;
+      return -1;
+    }
+
+    /**
+     * Find the edge in this list that connects to a node.
+     *
+     * @param neighbor the successor of a leaving edge, or the predecessor of an entering edge
+     * @return the edge connecting to neighbor, or null if this list has no such edge
+     */
+    public Edge find(Node neighbor) {
+      int position = positionOf(neighbor);
+      return position < 0 ? null : get(position);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Edge get(int position) {
+      if (position < 0 || position >= size)
+        throw new IndexOutOfBoundsException("No edge at position " + position);
+      return (Edge) edges[position];
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Add an edge to this list. The list must not already hold an edge connecting to the same node.
+     *
+     * @param edge the edge to add
+     * @return true
+     */
+    @Override
+    public boolean add(Edge edge) {
+      if (size == edges.length) {
+        Object[] grown = new Object[size * 2];
+        System.arraycopy(edges, 0, grown, 0, size);
+        edges = grown;
+      }
+      edges[size] = edge;
+      if (index != null)
+        index.put(neighbor(edge), size);
+      size++;
+      modCount++;
+      if (index == null && size > EDGE_INDEX_THRESHOLD) {
+        // this node has become a hub, so stop scanning for its edges
+        index = new ObjectIntMap<>(size * 2);
+        for (int i = 0; i < size; i++)
+          index.put(neighbor(get(i)), i);
+      }
+      return true;
+    }
+
+    @Override
+    public Edge remove(int position) {
+      Edge removed = get(position);
+      int last = size - 1;
+      if (position != last) {
+        edges[position] = edges[last];
+        if (index != null)
+          index.replace(neighbor(get(position)), position);
+      }
+      edges[last] = null;
+      size--;
+      modCount++;
+      if (index != null)
+        index.remove(neighbor(removed));
+      return removed;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object edge) {
+      if (!(edge instanceof BaseGraph.Edge))
+        return false;
+      int position = positionOf(neighbor((Edge) edge));
+      if (position < 0 || get(position) != edge)
+        return false;
+      remove(position);
+      return true;
+    }
+  }
+
   // Nodes can be retrieved from this map by their unique data
   protected MapADT<NodeType, Node> nodes = null;
 
+  // Nodes can also be retrieved by their id, which always lies in [0, getNodeCount())
+  protected List<Node> nodesById = new ArrayList<>();
+
   // Each edge contains data/weight, and two nodes that it connects
   protected class Edge {
     public EdgeType data; // the weight or cost of this edge
@@ -38,6 +177,10 @@ public class BaseGraph<NodeType, EdgeType extends Number>{
   protected int edgeCount = 0;
   // Edges can be retrieved through the edge lists in either connected node
 
+  // Incremented by every change to the nodes or edges, so that results derived from an earlier
+  // state of the graph can tell that they are out of date
+  protected long version = 0;
+
   /**
    * Constructor for BaseGraph that provides the map the graph uses.
    *
@@ -59,7 +202,11 @@ public class BaseGraph<NodeType, EdgeType extends Number>{
   public boolean insertNode(NodeType data) {
     if (nodes.containsKey(data))
       return false; // throws NPE when data's null
-    nodes.put(data, new Node(data));
+    Node newNode = new Node(data);
+    newNode.id = nodesById.size();
+    nodes.put(data, newNode);
+    nodesById.add(newNode);
+    version++;
     return true;
   }
 
@@ -77,12 +224,19 @@ public class BaseGraph<NodeType, EdgeType extends Number>{
     if (!nodes.containsKey(data))
       return false; // throws NPE when data==null
     Node oldNode = nodes.remove(data);
+    // keep ids dense by moving the last node into the removed node's slot
+    Node lastNode = nodesById.remove(nodesById.size() - 1);
+    if (lastNode != oldNode) {
+      lastNode.id = oldNode.id;
+      nodesById.set(lastNode.id, lastNode);
+    }
     // remove all edges entering neighboring nodes from this one
     for (Edge edge : oldNode.edgesLeaving)
       edge.successor.edgesEntering.remove(edge);
     // remove all edges leaving neighboring nodes toward this one
     for (Edge edge : oldNode.edgesEntering)
       edge.predecessor.edgesLeaving.remove(edge);
+    version++;
     return true;
   }
 
@@ -119,15 +273,15 @@ public class BaseGraph<NodeType, EdgeType extends Number>{
    */
   public boolean insertEdge(NodeType pred, NodeType succ, EdgeType weight) {
     // find nodes associated with node data, and return false when not found
+    if (!nodes.containsKey(pred) || !nodes.containsKey(succ))
+      return false;
     Node predNode = nodes.get(pred);
     Node succNode = nodes.get(succ);
-    if (predNode == null || succNode == null)
-      return false;
-    try {
+    Edge existingEdge = predNode.edgesLeaving.find(succNode);
+    if (existingEdge != null) {
       // when an edge alread exists within the graph, update its weight
-      Edge existingEdge = getEdgeHelper(pred, succ);
       existingEdge.data = weight;
-    } catch (NoSuchElementException e) {
+    } else {
       // otherwise create a new edges
       Edge newEdge = new Edge(weight, predNode, succNode);
       this.edgeCount++;
@@ -135,6 +289,7 @@ public class BaseGraph<NodeType, EdgeType extends Number>{
       predNode.edgesLeaving.add(newEdge);
       succNode.edgesEntering.add(newEdge);
     }
+    version++;
     return true;
   }
 
@@ -147,19 +302,17 @@ public class BaseGraph<NodeType, EdgeType extends Number>{
    *         false if such an edge is not found in the graph
    */
   public boolean removeEdge(NodeType pred, NodeType succ) {
-    try {
-      // when an edge exists
-      Edge oldEdge = getEdgeHelper(pred, succ);
-      // remove it from the edge lists of each adjacent node
-      oldEdge.predecessor.edgesLeaving.remove(oldEdge);
-      oldEdge.successor.edgesEntering.remove(oldEdge);
-      // and decrement the edge count before removing
-      this.edgeCount--;
-      return true;
-    } catch (NoSuchElementException e) {
-      // when no such edge exists, return false instead
+    Edge oldEdge = findEdge(pred, succ);
+    // when no such edge exists, return false
+    if (oldEdge == null)
       return false;
-    }
+    // otherwise remove it from the edge lists of each adjacent node
+    oldEdge.predecessor.edgesLeaving.remove(oldEdge);
+    oldEdge.successor.edgesEntering.remove(oldEdge);
+    // and decrement the edge count before removing
+    this.edgeCount--;
+    version++;
+    return true;
   }
 
   /**
@@ -170,12 +323,7 @@ public class BaseGraph<NodeType, EdgeType extends Number>{
    * @return true if the edge is found in the graph, or false other
    */
   public boolean containsEdge(NodeType pred, NodeType succ) {
-    try {
-      getEdgeHelper(pred, succ);
-      return true;
-    } catch (NoSuchElementException e) {
-      return false;
-    }
+    return findEdge(pred, succ) != null;
   }
 
   /**
@@ -192,15 +340,63 @@ public class BaseGraph<NodeType, EdgeType extends Number>{
   }
 
   protected Edge getEdgeHelper(NodeType pred, NodeType succ) {
-    Node predNode = nodes.get(pred);
-    // search for edge through the predecessor's list of leaving edges
-    for (Edge edge : predNode.edgesLeaving)
-      // compare succ to the data in each leaving edge's successor
-      if (edge.successor.data.equals(succ))
-        return edge;
+    Edge edge = findEdge(pred, succ);
     // when no such edge can be found, throw NSE
-    throw new NoSuchElementException("No edge from " + pred.toString() + " to " +
-        succ.toString());
+    if (edge == null)
+      throw new NoSuchElementException("No edge from " + pred.toString() + " to " +
+          succ.toString());
+    return edge;
+  }
+
+  /**
+   * Find the edge between two nodes without throwing when it does not exist.
+   *
+   * @param pred the data item contained in the source node for the edge
+   * @param succ the data item contained in the target node for the edge
+   * @return the edge between those nodes, or null if either node or the edge is not in the graph
+   */
+  protected Edge findEdge(NodeType pred, NodeType succ) {
+    if (!nodes.containsKey(pred) || !nodes.containsKey(succ))
+      return null;
+    // look the successor up in the predecessor's list of leaving edges
+    return nodes.get(pred).edgesLeaving.find(nodes.get(succ));
+  }
+
+  /**
+   * Fill an empty graph with nodes and edges in one pass, as done by GraphBuilder. Every node's
+   * edge lists are sized for its degree up front, and no edge is looked up, so the caller must
+   * make sure that no two edges connect the same pair of nodes in the same direction.
+   *
+   * @param data    the data item of each node, which becomes its id
+   * @param preds   the id of each edge's predecessor node
+   * @param succs   the id of each edge's successor node
+   * @param weights the weight of each edge
+   * @throws IllegalStateException if the graph already contains nodes
+   */
+  protected void load(List<NodeType> data, int[] preds, int[] succs, List<EdgeType> weights) {
+    if (!nodesById.isEmpty())
+      throw new IllegalStateException("Only an empty graph can be loaded");
+    int[] leaving = new int[data.size()];
+    int[] entering = new int[data.size()];
+    for (int e = 0; e < preds.length; e++) {
+      leaving[preds[e]]++;
+      entering[succs[e]]++;
+    }
+    for (int id = 0; id < data.size(); id++) {
+      Node node = new Node(data.get(id));
+      node.id = id;
+      node.edgesLeaving = new EdgeList(true, leaving[id]);
+      node.edgesEntering = new EdgeList(false, entering[id]);
+      nodes.put(node.data, node);
+      nodesById.add(node);
+    }
+    for (int e = 0; e < preds.length; e++) {
+      Edge edge = new Edge(weights.get(e), nodesById.get(preds[e]), nodesById.get(succs[e]));
+      edge.predecessor.edgesLeaving.add(edge);
+      edge.successor.edgesEntering.add(edge);
+    }
+    edgeCount = preds.length;
+    version++;
   }
 
   /**
@@ -212,4 +408,46 @@ public class BaseGraph<NodeType, EdgeType extends Number>{
     return this.edgeCount;
   }
 
+  /**
+   * Return the version of this graph, which changes whenever a node or edge is inserted, removed,
+   * or has its weight updated.
+   *
+   * @return the current version of this graph
+   */
+  public long getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Compile the current contents of this graph into an immutable CompactGraph. The snapshot
+   * stores its adjacency in primitive arrays and is not affected by later changes to this graph.
+   *
+   * @return a read-only snapshot of this graph
+   */
+  @SuppressWarnings("unchecked")
+  public CompactGraph<NodeType> freeze() {
+    int nodeCount = nodesById.size();
+    NodeType[] data = (NodeType[]) new Object[nodeCount];
+    int[] offsets = new int[nodeCount + 1];
+    // count the edges leaving each node to find where its run of targets starts
+    for (Node node : nodesById) {
+      data[node.id] = node.data;
+      offsets[node.id + 1] = node.edgesLeaving.size();
+    }
+    for (int i = 0; i < nodeCount; i++)
+      offsets[i + 1] += offsets[i];
+    // then copy each node's leaving edges into its run
+    int[] targets = new int[offsets[nodeCount]];
+    double[] weights = new double[offsets[nodeCount]];
+    for (Node node : nodesById) {
+      int next = offsets[node.id];
+      for (Edge edge : node.edgesLeaving) {
+        targets[next] = edge.successor.id;
+        weights[next] = edge.data.doubleValue();
+        next++;
+      }
+    }
+    return new CompactGraph<>(data, offsets, targets, weights, version);
+  }
+
 }
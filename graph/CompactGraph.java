@@ -0,0 +1,337 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This CompactGraph class is an immutable snapshot of a BaseGraph, produced by BaseGraph.freeze().
+ * Nodes are numbered with dense int ids, and the edges leaving node i are stored in the index range
+ * [offsets[i], offsets[i+1]) of the targets and weights arrays (compressed sparse row form). This
+ * keeps every relaxation within a few primitive arrays, which makes the snapshot well suited for
+ * answering many shortest path queries against a graph that no longer changes.
+ *
+ * @param <NodeType> is the data type stored at each graph node
+ */
+public class CompactGraph<NodeType> {
+
+  // node data indexed by node id, and the reverse mapping from node data to node id
+  protected final NodeType[] data;
+  protected final ObjectIntMap<NodeType> ids;
+
+  // edges leaving node i are targets[offsets[i]] ... targets[offsets[i+1]-1]
+  protected final int[] offsets;
+  protected final int[] targets;
+  protected final double[] weights;
+
+  // the same edges grouped by the node they enter: edges entering node i come from
+  // sources[reverseOffsets[i]] ... sources[reverseOffsets[i+1]-1]
+  protected final int[] reverseOffsets;
+  protected final int[] sources;
+  protected final double[] reverseWeights;
+
+  // the version of the graph this snapshot was taken from
+  protected final long version;
+
+  /**
+   * Constructor for CompactGraph, normally called through BaseGraph.freeze().
+   *
+   * @param data    the node data for each node id
+   * @param offsets where each node's run of leaving edges starts, with one extra trailing entry
+   * @param targets the successor node id of each edge
+   * @param weights the non-negative weight of each edge
+   * @param version the version of the graph this snapshot is taken from
+   */
+  protected CompactGraph(NodeType[] data, int[] offsets, int[] targets, double[] weights,
+      long version) {
+    this.data = data;
+    this.version = version;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+    this.ids = new ObjectIntMap<>(data.length * 5 / 4 + 1);
+    for (int id = 0; id < data.length; id++)
+      ids.put(data[id], id);
+
+    // group the edges a second time by the node they enter
+    this.reverseOffsets = new int[data.length + 1];
+    this.sources = new int[targets.length];
+    this.reverseWeights = new double[targets.length];
+    for (int target : targets)
+      reverseOffsets[target + 1]++;
+    for (int i = 0; i < data.length; i++)
+      reverseOffsets[i + 1] += reverseOffsets[i];
+    int[] next = Arrays.copyOf(reverseOffsets, data.length);
+    for (int u = 0; u < data.length; u++) {
+      for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+        int slot = next[targets[e]]++;
+        sources[slot] = u;
+        reverseWeights[slot] = weights[e];
+      }
+    }
+  }
+
+  /**
+   * Return the number of nodes in this snapshot.
+   *
+   * @return the number of nodes in this snapshot
+   */
+  public int getNodeCount() {
+    return data.length;
+  }
+
+  /**
+   * Return the number of edges in this snapshot.
+   *
+   * @return the number of edges in this snapshot
+   */
+  public int getEdgeCount() {
+    return targets.length;
+  }
+
+  /**
+   * Return the version of the graph this snapshot was taken from.
+   *
+   * @return the BaseGraph.getVersion() value at the time of freezing
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Check whether this snapshot contains a node with the provided data.
+   *
+   * @param data the node contents to check for
+   * @return true if data item is stored in a node within this snapshot, or false otherwise
+   */
+  public boolean containsNode(NodeType data) {
+    return ids.containsKey(data);
+  }
+
+  /**
+   * Return the id of the node containing the provided data.
+   *
+   * @param data the node contents to look up
+   * @return the id of that node
+   * @throws NoSuchElementException if no node contains that data
+   */
+  public int idOf(NodeType data) {
+    return ids.get(data);
+  }
+
+  /**
+   * Return the data stored in the node with the provided id.
+   *
+   * @param id the id of the node
+   * @return the data stored in that node
+   */
+  public NodeType dataOf(int id) {
+    return data[id];
+  }
+
+  /**
+   * Runs Dijkstra's algorithm from source until target is settled, recording the cost of every
+   * settled node in dist and the node it was reached from in pred (-1 for the source).
+   *
+   * @param source the id of the starting node
+   * @param target the id of the destination node
+   * @param dist   array of getNodeCount() entries that receives the settled costs
+   * @param pred   array of getNodeCount() entries that receives the predecessor ids
+   * @return the number of nodes settled by the search
+   * @throws NoSuchElementException when no path from source to target is found
+   */
+  protected int computeShortestPath(int source, int target, double[] dist, int[] pred) {
+    int settled = search(offsets, targets, weights, source, target, dist, pred);
+    if (dist[target] == Double.POSITIVE_INFINITY)
+      throw new NoSuchElementException("No path exists between the specified nodes");
+    return settled;
+  }
+
+  /**
+   * Runs Dijkstra's algorithm from source over every reachable node, following edges forward, or
+   * backward when reverse is true (so that dist then holds the cost of reaching source).
+   *
+   * @param source  the id of the node the search starts from
+   * @param reverse whether to follow edges from their successor to their predecessor
+   * @param dist    array of getNodeCount() entries that receives the costs, infinite when unreached
+   * @param pred    array of getNodeCount() entries that receives the id of the neighbor each node
+   *                was reached through, -1 for the source
+   */
+  protected void computeDistances(int source, boolean reverse, double[] dist, int[] pred) {
+    if (reverse)
+      search(reverseOffsets, sources, reverseWeights, source, -1, dist, pred);
+    else
+      search(offsets, targets, weights, source, -1, dist, pred);
+  }
+
+  /**
+   * Runs Dijkstra's algorithm from source until target is settled, in the calling thread's search
+   * workspace, so that repeated calls allocate nothing.
+   *
+   * @param source the id of the starting node
+   * @param target the id of the destination node
+   * @return the cost of the shortest path from source to target
+   * @throws NoSuchElementException when no path from source to target is found
+   */
+  public double computeCost(int source, int target) {
+    SearchWorkspace workspace = SearchWorkspace.forward(data.length);
+    IndexedHeap queue = workspace.getQueue();
+    workspace.relax(source, 0, -1);
+    while (!queue.isEmpty()) {
+      int u = queue.poll();
+      if (u == target)
+        return workspace.costOf(u);
+      relaxEdges(workspace, u);
+    }
+    throw new NoSuchElementException("No path exists between the specified nodes");
+  }
+
+  /**
+   * Runs Dijkstra's algorithm from source until every node in targetIds is settled, or until every
+   * reachable node is settled when some targets cannot be reached. The search runs in the calling
+   * thread's search workspace, so only the returned array is allocated.
+   *
+   * @param source    the id of the node the search starts from
+   * @param targetIds the ids of the nodes to find costs for, which may repeat
+   * @return the cost from source to each entry of targetIds, infinite when unreachable
+   */
+  public double[] computeCostsTo(int source, int[] targetIds) {
+    SearchWorkspace workspace = SearchWorkspace.forward(data.length);
+    int remaining = 0;
+    for (int target : targetIds)
+      if (workspace.mark(target))
+        remaining++;
+
+    IndexedHeap queue = workspace.getQueue();
+    workspace.relax(source, 0, -1);
+    while (!queue.isEmpty() && remaining > 0) {
+      int u = queue.poll();
+      if (workspace.isMarked(u))
+        remaining--;
+      relaxEdges(workspace, u);
+    }
+
+    double[] costs = new double[targetIds.length];
+    for (int i = 0; i < targetIds.length; i++)
+      costs[i] = workspace.costOf(targetIds[i]);
+    return costs;
+  }
+
+  // lowers the cost of every node reached by an edge leaving u, in the provided workspace
+  private void relaxEdges(SearchWorkspace workspace, int u) {
+    double cost = workspace.costOf(u);
+    for (int e = offsets[u]; e < offsets[u + 1]; e++)
+      workspace.relax(targets[e], cost + weights[e], u);
+  }
+
+  // Dijkstra's algorithm over one direction of the adjacency arrays, stopping once target is
+  // settled (or never, when target is -1), and returning the number of settled nodes
+  private int search(int[] offsets, int[] targets, double[] weights, int source, int target,
+      double[] dist, int[] pred) {
+    Arrays.fill(dist, Double.POSITIVE_INFINITY);
+    IndexedHeap queue = new IndexedHeap(data.length);
+    dist[source] = 0;
+    pred[source] = -1;
+    queue.insertOrDecrease(source, 0);
+
+    int settled = 0;
+    while (!queue.isEmpty()) {
+      int u = queue.poll();
+      settled++;
+      if (u == target)
+        break;
+
+      for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+        int v = targets[e];
+        double newCost = dist[u] + weights[e];
+        if (newCost < dist[v]) {
+          dist[v] = newCost;
+          pred[v] = u;
+          queue.insertOrDecrease(v, newCost);
+        }
+      }
+    }
+    return settled;
+  }
+
+  /**
+   * Returns the list of data values from nodes along the shortest path from the node with the
+   * provided start value through the node with the provided end value.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return list of data item from node along this shortest path
+   * @throws NoSuchElementException when no path from start to end is found or when either start or
+   *                                end data do not correspond to a graph node
+   */
+  public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+    int target = idOf(end);
+    double[] dist = new double[data.length];
+    int[] pred = new int[data.length];
+    computeShortestPath(idOf(start), target, dist, pred);
+
+    // backtrack from the end node to build the path
+    List<NodeType> path = new LinkedList<>();
+    for (int id = target; id != -1; id = pred[id])
+      path.add(0, data[id]);
+    return path;
+  }
+
+  /**
+   * Returns the cost of the shortest path from the node containing the start data to the node
+   * containing the end data.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return the cost of the shortest path between these nodes
+   * @throws NoSuchElementException when no path from start to end is found or when either start or
+   *                                end data do not correspond to a graph node
+   */
+  public double shortestPathCost(NodeType start, NodeType end) {
+    return computeCost(idOf(start), idOf(end));
+  }
+
+  // JUnit test methods
+
+  /**
+   * Checks that a frozen snapshot finds the same paths and costs as the graph it was built from.
+   */
+  @Test
+  public void testFrozenMatchesDijkstraGraph() {
+    DijkstraGraph<String, Integer> graph = DijkstraGraph.createGraphFromExample();
+    CompactGraph<String> frozen = graph.freeze();
+
+    Assertions.assertEquals(8, frozen.getNodeCount());
+    Assertions.assertEquals(9, frozen.getEdgeCount());
+    for (String end : new String[] {"B", "E", "G", "H"}) {
+      Assertions.assertEquals(graph.shortestPathCost("A", end), frozen.shortestPathCost("A", end));
+      Assertions.assertEquals(graph.shortestPathData("A", end), frozen.shortestPathData("A", end));
+    }
+    Assertions.assertEquals(Arrays.asList("A", "C", "D", "F", "G"),
+        frozen.shortestPathData("A", "G"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> frozen.shortestPathCost("E", "C"));
+  }
+
+  /**
+   * Checks that changes to a graph after freezing it are not visible through the snapshot, and that
+   * node ids stay dense after a node is removed.
+   */
+  @Test
+  public void testSnapshotIgnoresLaterChanges() {
+    DijkstraGraph<String, Integer> graph = DijkstraGraph.createGraphFromExample();
+    CompactGraph<String> frozen = graph.freeze();
+    graph.insertEdge("A", "E", 1);
+    graph.removeNode("C");
+
+    Assertions.assertEquals(14, frozen.shortestPathCost("A", "E"));
+    Assertions.assertTrue(frozen.containsNode("C"));
+
+    CompactGraph<String> refrozen = graph.freeze();
+    Assertions.assertEquals(7, refrozen.getNodeCount());
+    Assertions.assertFalse(refrozen.containsNode("C"));
+    Assertions.assertEquals(1, refrozen.shortestPathCost("A", "E"));
+    Assertions.assertEquals("H", refrozen.dataOf(refrozen.idOf("H")));
+  }
+}
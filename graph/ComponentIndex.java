@@ -0,0 +1,364 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This ComponentIndex class labels the nodes of a DijkstraGraph with their components, so that a
+ * query between nodes that no path connects can be rejected without searching. It is created by
+ * DijkstraGraph.components(), and keeps two labellings:
+ *
+ * - Weakly connected components, the components of the graph when edge directions are ignored,
+ * kept in a union-find structure. Inserted nodes and edges are merged in as the graph reports
+ * them, and removals, which union-find cannot undo, leave the structure out of date until the next
+ * query rebuilds it.
+ *
+ * - Strongly connected components, numbered with Tarjan's algorithm when the index is created or
+ * refreshed. Tarjan's algorithm numbers each component only after every component reachable from
+ * it, so a path from u to v can only exist when u's number is at least v's. These numbers cannot be
+ * updated edge by edge, so after a change mayReach() ignores them rather than relabelling the
+ * whole graph on every query, until refresh() is called.
+ *
+ * Queries only read the labels once they are current, so any number of threads can query an
+ * index that was refreshed before they started.
+ *
+ * @param <NodeType> is the data type stored at each graph node
+ * @param <EdgeType> is the data type stored at each graph edge as a weight
+ */
+public class ComponentIndex<NodeType, EdgeType extends Number> {
+
+  protected final DijkstraGraph<NodeType, EdgeType> graph;
+  // the version of the graph that the union-find parents and sizes are correct for
+  protected long version;
+  // union-find parent of each node id, and the number of nodes below each root
+  protected int[] parent = new int[0];
+  protected int[] size = new int[0];
+  protected int componentCount = 0;
+  // the version of the graph that the strongly connected component numbers are correct for
+  protected long strongVersion = -1;
+  protected int[] strongComponent = new int[0];
+  protected int strongComponentCount = 0;
+
+  /**
+   * Constructor for ComponentIndex, normally called through DijkstraGraph.components().
+   *
+   * @param graph the graph whose components to label
+   */
+  protected ComponentIndex(DijkstraGraph<NodeType, EdgeType> graph) {
+    this.graph = graph;
+    rebuild();
+    labelStrongComponents();
+  }
+
+  /**
+   * Brings both labellings up to date with the graph, so that later queries only read them.
+   */
+  public void refresh() {
+    if (version != graph.getVersion())
+      rebuild();
+    if (strongVersion != graph.getVersion())
+      labelStrongComponents();
+  }
+
+  /**
+   * Checks whether a path from the node with id startId to the node with id endId can exist. A
+   * false answer is certain, while a true answer only means that the labels cannot rule the path
+   * out. The weakly connected components are rebuilt first if a removal left them out of date.
+   *
+   * @param startId the id of the node the path starts from
+   * @param endId   the id of the node the path ends at
+   * @return false if no path from startId to endId exists, and true otherwise
+   */
+  public boolean mayReach(int startId, int endId) {
+    if (version != graph.getVersion())
+      rebuild();
+    if (find(startId) != find(endId))
+      return false;
+    return strongVersion != version || strongComponent[startId] >= strongComponent[endId];
+  }
+
+  /**
+   * Checks whether the current strongly connected component numbers put the nodes with ids
+   * startId and endId in the same component. Unlike stronglyConnected(), this never relabels the
+   * graph, and answers false whenever the numbers are out of date.
+   *
+   * @param startId the id of the node the path starts from
+   * @param endId   the id of the node the path ends at
+   * @return true if a path from startId to endId is known to exist, and false otherwise
+   */
+  public boolean surelyReaches(int startId, int endId) {
+    return strongVersion == graph.getVersion()
+        && strongComponent[startId] == strongComponent[endId];
+  }
+
+  /**
+   * Checks whether the nodes with ids startId and endId are in the same strongly connected
+   * component, in which case each can reach the other.
+   *
+   * @param startId the id of one node
+   * @param endId   the id of the other node
+   * @return true if a path leads from each node to the other, and false otherwise
+   */
+  public boolean stronglyConnected(int startId, int endId) {
+    refresh();
+    return strongComponent[startId] == strongComponent[endId];
+  }
+
+  /**
+   * Returns the number of weakly connected components in the graph.
+   *
+   * @return the number of components when edge directions are ignored
+   */
+  public int getComponentCount() {
+    refresh();
+    return componentCount;
+  }
+
+  /**
+   * Returns the number of strongly connected components in the graph.
+   *
+   * @return the number of strongly connected components
+   */
+  public int getStrongComponentCount() {
+    refresh();
+    return strongComponentCount;
+  }
+
+  /**
+   * Gives a node that was just inserted a component of its own.
+   *
+   * @param graphVersion the version of the graph after the insertion
+   */
+  protected void nodeInserted(long graphVersion) {
+    if (version != graphVersion - 1)
+      return; // already out of date, and rebuilt on the next query
+    // the arrays grow geometrically, and only the first nodesById.size() entries are in use
+    int id = graph.nodesById.size() - 1;
+    if (id == parent.length) {
+      parent = Arrays.copyOf(parent, Math.max(8, parent.length * 2));
+      size = Arrays.copyOf(size, parent.length);
+    }
+    parent[id] = id;
+    size[id] = 1;
+    componentCount++;
+    version = graphVersion;
+  }
+
+  /**
+   * Merges the components of the nodes an inserted or updated edge connects.
+   *
+   * @param predId       the id of the node the edge leaves
+   * @param succId       the id of the node the edge enters
+   * @param graphVersion the version of the graph after the change
+   */
+  protected void edgeInserted(int predId, int succId, long graphVersion) {
+    if (version != graphVersion - 1)
+      return; // already out of date, and rebuilt on the next query
+    union(predId, succId);
+    version = graphVersion;
+  }
+
+  // Finds the root of a node's component without changing the structure, so that concurrent
+  // queries never write to it; union by size keeps every path short
+  private int find(int id) {
+    while (parent[id] != id)
+      id = parent[id];
+    return id;
+  }
+
+  // Merges the components of two nodes, hanging the smaller one below the larger one
+  private void union(int a, int b) {
+    int rootA = find(a);
+    int rootB = find(b);
+    if (rootA == rootB)
+      return;
+    if (size[rootA] < size[rootB]) {
+      int swap = rootA;
+      rootA = rootB;
+      rootB = swap;
+    }
+    parent[rootB] = rootA;
+    size[rootA] += size[rootB];
+    componentCount--;
+  }
+
+  /**
+   * Rebuilds the weakly connected components from every edge in the graph.
+   */
+  protected void rebuild() {
+    int nodeCount = graph.nodesById.size();
+    parent = new int[nodeCount];
+    size = new int[nodeCount];
+    for (int id = 0; id < nodeCount; id++) {
+      parent[id] = id;
+      size[id] = 1;
+    }
+    componentCount = nodeCount;
+    for (BaseGraph<NodeType, EdgeType>.Node node : graph.nodesById)
+      for (BaseGraph<NodeType, EdgeType>.Edge edge : node.edgesLeaving)
+        union(node.id, edge.successor.id);
+    version = graph.getVersion();
+  }
+
+  /**
+   * Numbers the strongly connected components with an iterative version of Tarjan's algorithm,
+   * which keeps deep graphs from overflowing the call stack.
+   */
+  protected void labelStrongComponents() {
+    int nodeCount = graph.nodesById.size();
+    int[] order = new int[nodeCount]; // the order each node was discovered in, from 1
+    int[] lowLink = new int[nodeCount];
+    int[] nextEdge = new int[nodeCount]; // position of the next leaving edge to follow
+    boolean[] onStack = new boolean[nodeCount];
+    int[] stack = new int[nodeCount];
+    int[] path = new int[nodeCount]; // the nodes whose edges are being followed
+    strongComponent = new int[nodeCount];
+    strongComponentCount = 0;
+    int discovered = 0;
+    int stackSize = 0;
+
+    for (int root = 0; root < nodeCount; root++) {
+      if (order[root] != 0)
+        continue;
+      int pathSize = 0;
+      path[pathSize++] = root;
+      order[root] = lowLink[root] = ++discovered;
+      stack[stackSize++] = root;
+      onStack[root] = true;
+      while (pathSize > 0) {
+        int u = path[pathSize - 1];
+        BaseGraph<NodeType, EdgeType>.EdgeList edges = graph.nodesById.get(u).edgesLeaving;
+        if (nextEdge[u] < edges.size()) {
+          int v = edges.get(nextEdge[u]++).successor.id;
+          if (order[v] == 0) {
+            order[v] = lowLink[v] = ++discovered;
+            stack[stackSize++] = v;
+            onStack[v] = true;
+            path[pathSize++] = v;
+          } else if (onStack[v]) {
+            lowLink[u] = Math.min(lowLink[u], order[v]);
+          }
+          continue;
+        }
+        // every edge of u is followed, so u's component is complete when u is its first node
+        pathSize--;
+        if (pathSize > 0)
+          lowLink[path[pathSize - 1]] = Math.min(lowLink[path[pathSize - 1]], lowLink[u]);
+        if (lowLink[u] == order[u]) {
+          int member;
+          do {
+            member = stack[--stackSize];
+            onStack[member] = false;
+            strongComponent[member] = strongComponentCount;
+          } while (member != u);
+          strongComponentCount++;
+        }
+      }
+    }
+    strongVersion = graph.getVersion();
+  }
+
+  // JUnit test methods
+
+  /**
+   * Checks the components of a small graph as it changes: inserted edges merge components at
+   * once, and removing an edge or node splits them again on the next query.
+   */
+  @Test
+  public void testComponentsFollowChanges() {
+    DijkstraGraph<String, Integer> graph = new DijkstraGraph<>(new PlaceholderMap<>());
+    for (String node : new String[] {"A", "B", "C", "D"})
+      graph.insertNode(node);
+    graph.insertEdge("A", "B", 1);
+    graph.insertEdge("B", "A", 1);
+    graph.insertEdge("B", "C", 1);
+    ComponentIndex<String, Integer> index = graph.components();
+    Assertions.assertEquals(2, index.getComponentCount());
+    Assertions.assertEquals(3, index.getStrongComponentCount());
+    Assertions.assertTrue(graph.isReachable("A", "C"));
+    Assertions.assertFalse(graph.isReachable("C", "A"));
+    Assertions.assertFalse(graph.isReachable("A", "D"));
+
+    graph.insertEdge("C", "D", 1);
+    graph.insertEdge("D", "B", 1);
+    Assertions.assertEquals(1, index.getComponentCount());
+    Assertions.assertTrue(graph.isReachable("D", "A"));
+    Assertions.assertEquals(1, index.getStrongComponentCount());
+
+    // D still reaches B, so the graph stays weakly connected while A loses its path to D
+    graph.removeEdge("C", "D");
+    Assertions.assertEquals(1, index.getComponentCount());
+    Assertions.assertEquals(3, index.getStrongComponentCount());
+    Assertions.assertFalse(graph.isReachable("A", "D"));
+    graph.insertEdge("A", "D", 1);
+    graph.removeNode("B");
+    Assertions.assertEquals(2, index.getComponentCount());
+    Assertions.assertTrue(graph.isReachable("A", "D"));
+    Assertions.assertFalse(graph.isReachable("A", "C"));
+    Assertions.assertFalse(graph.isReachable("A", "Z"));
+  }
+
+  /**
+   * Checks that queries after a change only read the labels: the strongly connected components
+   * keep their old numbers until refresh(), and inserted nodes grow the union-find arrays
+   * geometrically rather than one entry at a time.
+   */
+  @Test
+  public void testQueriesDoNotRelabel() {
+    DijkstraGraph<Integer, Integer> graph = new DijkstraGraph<>(new HashtableMap<>());
+    graph.insertNode(0);
+    graph.insertNode(1);
+    graph.insertEdge(0, 1, 1);
+    ComponentIndex<Integer, Integer> index = graph.components();
+    long labelled = index.strongVersion;
+
+    graph.insertEdge(1, 0, 1);
+    Assertions.assertTrue(graph.isReachable(1, 0));
+    Assertions.assertEquals(1, graph.shortestPathCost(1, 0));
+    Assertions.assertNotNull(graph.findShortestRoute(1, 0));
+    Assertions.assertEquals(labelled, index.strongVersion);
+
+    for (int i = 2; i < 1000; i++) {
+      graph.insertNode(i);
+      graph.insertEdge(i - 1, i, 1);
+    }
+    Assertions.assertTrue(index.parent.length < 2 * 1000);
+    Assertions.assertEquals(999, graph.shortestPathCost(0, 999));
+    Assertions.assertFalse(graph.isReachable(999, 0));
+    Assertions.assertEquals(labelled, index.strongVersion);
+    Assertions.assertEquals(1, index.getComponentCount());
+    Assertions.assertEquals(999, index.getStrongComponentCount());
+  }
+
+  /**
+   * Checks on random directed graphs that mayReach never rejects a pair that a search can
+   * connect, and that every pair in one strongly connected component reaches each other.
+   */
+  @Test
+  public void testNeverRejectsReachablePairs() {
+    Random random = new Random(9);
+    for (int trial = 0; trial < 5; trial++) {
+      DijkstraGraph<Integer, Integer> graph = new DijkstraGraph<>(new HashtableMap<>());
+      for (int i = 0; i < 60; i++)
+        graph.insertNode(i);
+      for (int i = 0; i < 70; i++)
+        graph.insertEdge(random.nextInt(60), random.nextInt(60), 1);
+      ComponentIndex<Integer, Integer> index = graph.components();
+      for (int i = 0; i < 20; i++)
+        graph.insertEdge(random.nextInt(60), random.nextInt(60), 1);
+      for (int start = 0; start < 60; start++) {
+        ShortestPathTree<Integer> tree = graph.shortestPathTree(start);
+        for (int end = 0; end < 60; end++) {
+          int startId = graph.nodes.get(start).id;
+          int endId = graph.nodes.get(end).id;
+          if (tree.reaches(end))
+            Assertions.assertTrue(index.mayReach(startId, endId));
+          if (index.stronglyConnected(startId, endId))
+            Assertions.assertTrue(tree.reaches(end));
+          Assertions.assertEquals(tree.reaches(end), graph.isReachable(start, end));
+        }
+      }
+    }
+  }
+}
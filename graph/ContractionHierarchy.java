@@ -0,0 +1,616 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * This ContractionHierarchy class answers shortest path queries on a CompactGraph with Contraction
+ * Hierarchies. During preprocessing every node is contracted in turn, least important first: the
+ * node is removed from the remaining graph, and a shortcut edge is added between each pair of its
+ * remaining neighbors whose only shortest connection led through it. A query then runs a
+ * bidirectional search that only ever follows edges toward more important nodes, which touches a
+ * tiny part of the graph, and unpacks the shortcuts on the resulting path back into original edges.
+ *
+ * @param <NodeType> is the data type stored at each graph node
+ */
+public class ContractionHierarchy<NodeType> {
+
+  // witness searches give up after settling this many nodes, at the cost of an extra shortcut
+  private static final int WITNESS_SETTLE_LIMIT = 500;
+
+  protected final CompactGraph<NodeType> graph;
+
+  // the position of each node in the contraction order, higher is more important
+  protected final int[] rank;
+
+  // upward edges for the forward search: edges leaving node i toward more important nodes are
+  // upTargets[upOffsets[i]] ... upTargets[upOffsets[i+1]-1]. A shortcut records the node it
+  // bypasses in upMiddles, and original edges record -1 there.
+  protected int[] upOffsets;
+  protected int[] upTargets;
+  protected double[] upWeights;
+  protected int[] upMiddles;
+
+  // upward edges for the backward search: edges entering node i from more important nodes
+  protected int[] downOffsets;
+  protected int[] downSources;
+  protected double[] downWeights;
+  protected int[] downMiddles;
+
+  protected final int shortcutCount;
+  protected final long preprocessingMillis;
+
+  /**
+   * A growable list of edges between one node and its neighbors, used while contracting.
+   */
+  private static class EdgeList {
+    int[] neighbors = new int[4];
+    double[] weights = new double[4];
+    int[] middles = new int[4];
+    int size = 0;
+
+    // returns the index of the edge to neighbor, or -1 when there is none
+    int indexOf(int neighbor) {
+      for (int i = 0; i < size; i++)
+        if (neighbors[i] == neighbor)
+          return i;
+      return -1;
+    }
+
+    // adds an edge, or lowers the weight of the existing edge to the same neighbor;
+    // returns true when a new edge was added
+    boolean addOrLower(int neighbor, double weight, int middle) {
+      int i = indexOf(neighbor);
+      if (i != -1) {
+        if (weight < weights[i]) {
+          weights[i] = weight;
+          middles[i] = middle;
+        }
+        return false;
+      }
+      if (size == neighbors.length) {
+        neighbors = Arrays.copyOf(neighbors, size * 2);
+        weights = Arrays.copyOf(weights, size * 2);
+        middles = Arrays.copyOf(middles, size * 2);
+      }
+      neighbors[size] = neighbor;
+      weights[size] = weight;
+      middles[size] = middle;
+      size++;
+      return true;
+    }
+
+    void remove(int neighbor) {
+      int i = indexOf(neighbor);
+      if (i == -1)
+        return;
+      size--;
+      neighbors[i] = neighbors[size];
+      weights[i] = weights[size];
+      middles[i] = middles[size];
+    }
+  }
+
+  /**
+   * Contracts every node of the provided graph and builds the upward search graphs.
+   *
+   * @param graph the snapshot to answer queries on
+   */
+  public ContractionHierarchy(CompactGraph<NodeType> graph) {
+    long startTime = System.currentTimeMillis();
+    this.graph = graph;
+    int nodeCount = graph.getNodeCount();
+    this.rank = new int[nodeCount];
+
+    // copy the snapshot into edge lists that contraction can change
+    EdgeList[] out = new EdgeList[nodeCount];
+    EdgeList[] in = new EdgeList[nodeCount];
+    for (int v = 0; v < nodeCount; v++) {
+      out[v] = new EdgeList();
+      in[v] = new EdgeList();
+    }
+    for (int u = 0; u < nodeCount; u++) {
+      for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+        int v = graph.targets[e];
+        if (v != u) {
+          out[u].addOrLower(v, graph.weights[e], -1);
+          in[v].addOrLower(u, graph.weights[e], -1);
+        }
+      }
+    }
+
+    Witness witness = new Witness(nodeCount);
+    boolean[] contracted = new boolean[nodeCount];
+    int[] contractedNeighbors = new int[nodeCount];
+    EdgeList[] upOut = new EdgeList[nodeCount];
+    EdgeList[] upIn = new EdgeList[nodeCount];
+
+    // order nodes by priority, recomputing a node's priority lazily when it reaches the front
+    IndexedHeap order = new IndexedHeap(nodeCount);
+    for (int v = 0; v < nodeCount; v++)
+      order.insertOrDecrease(v, priority(v, out, in, contracted, contractedNeighbors, witness));
+
+    int shortcuts = 0;
+    int nextRank = 0;
+    while (!order.isEmpty()) {
+      int v = order.poll();
+      double current = priority(v, out, in, contracted, contractedNeighbors, witness);
+      if (!order.isEmpty() && current > order.peekKey()) {
+        order.insertOrDecrease(v, current);
+        continue;
+      }
+
+      // add the shortcuts that removing v requires
+      shortcuts += contract(v, out, in, contracted, witness, true);
+      contracted[v] = true;
+      rank[v] = nextRank++;
+
+      // every edge v still has leads to a node contracted later, so it is an upward edge
+      upOut[v] = out[v];
+      upIn[v] = in[v];
+      for (int i = 0; i < out[v].size; i++) {
+        in[out[v].neighbors[i]].remove(v);
+        contractedNeighbors[out[v].neighbors[i]]++;
+      }
+      for (int i = 0; i < in[v].size; i++) {
+        out[in[v].neighbors[i]].remove(v);
+        contractedNeighbors[in[v].neighbors[i]]++;
+      }
+    }
+    this.shortcutCount = shortcuts;
+
+    // pack the upward edges into arrays
+    upOffsets = new int[nodeCount + 1];
+    downOffsets = new int[nodeCount + 1];
+    for (int v = 0; v < nodeCount; v++) {
+      upOffsets[v + 1] = upOffsets[v] + upOut[v].size;
+      downOffsets[v + 1] = downOffsets[v] + upIn[v].size;
+    }
+    upTargets = new int[upOffsets[nodeCount]];
+    upWeights = new double[upOffsets[nodeCount]];
+    upMiddles = new int[upOffsets[nodeCount]];
+    downSources = new int[downOffsets[nodeCount]];
+    downWeights = new double[downOffsets[nodeCount]];
+    downMiddles = new int[downOffsets[nodeCount]];
+    for (int v = 0; v < nodeCount; v++) {
+      System.arraycopy(upOut[v].neighbors, 0, upTargets, upOffsets[v], upOut[v].size);
+      System.arraycopy(upOut[v].weights, 0, upWeights, upOffsets[v], upOut[v].size);
+      System.arraycopy(upOut[v].middles, 0, upMiddles, upOffsets[v], upOut[v].size);
+      System.arraycopy(upIn[v].neighbors, 0, downSources, downOffsets[v], upIn[v].size);
+      System.arraycopy(upIn[v].weights, 0, downWeights, downOffsets[v], upIn[v].size);
+      System.arraycopy(upIn[v].middles, 0, downMiddles, downOffsets[v], upIn[v].size);
+    }
+    this.preprocessingMillis = System.currentTimeMillis() - startTime;
+  }
+
+  /**
+   * Returns the snapshot this hierarchy answers queries on.
+   *
+   * @return the graph this hierarchy was built from
+   */
+  public CompactGraph<NodeType> getGraph() {
+    return graph;
+  }
+
+  /**
+   * Returns the number of shortcut edges added during preprocessing.
+   *
+   * @return the number of shortcuts
+   */
+  public int getShortcutCount() {
+    return shortcutCount;
+  }
+
+  /**
+   * Returns how long preprocessing took.
+   *
+   * @return the preprocessing time in milliseconds
+   */
+  public long getPreprocessingMillis() {
+    return preprocessingMillis;
+  }
+
+  /**
+   * Returns a summary of the hierarchy's size and the time it took to build.
+   *
+   * @return a string with the node, edge and shortcut counts and the preprocessing time
+   */
+  public String statistics() {
+    return "Nodes: " + graph.getNodeCount() + " Edges: " + graph.getEdgeCount() + " Shortcuts: "
+        + shortcutCount + " Preprocessing: " + preprocessingMillis + " ms";
+  }
+
+  /**
+   * Runs the upward bidirectional search from source to target and unpacks the path it finds. Both
+   * directions run in freshly checked out workspaces, so the search only writes the nodes it
+   * reaches. Afterward, the nodes along the path hold their cost from source in the forward
+   * workspace and, as their predecessor, the node before them on the path (-1 for the source).
+   * Other entries of both workspaces are left over from the search and are meaningless.
+   *
+   * @param source   the id of the starting node
+   * @param target   the id of the destination node
+   * @param forward  freshly checked out workspace for getNodeCount() nodes, which receives the path
+   * @param backward freshly checked out workspace for getNodeCount() nodes
+   * @return the number of nodes settled by both directions of the search
+   * @throws NoSuchElementException when no path from source to target is found
+   */
+  public int computeShortestPath(int source, int target, SearchWorkspace forward,
+      SearchWorkspace backward) {
+    // during the search, each node's predecessor is the hierarchy edge it was reached through
+    IndexedHeap forwardQueue = forward.getQueue();
+    IndexedHeap backwardQueue = backward.getQueue();
+    forward.relax(source, 0, -1);
+    backward.relax(target, 0, -1);
+
+    // each direction stops once its queue head costs at least as much as the best meeting point
+    double bestCost = source == target ? 0 : Double.POSITIVE_INFINITY;
+    int meetingNode = source == target ? source : -1;
+    int settled = 0;
+    while (true) {
+      boolean advanceForward = !forwardQueue.isEmpty() && forwardQueue.peekKey() < bestCost;
+      boolean advanceBackward = !backwardQueue.isEmpty() && backwardQueue.peekKey() < bestCost;
+      if (!advanceForward && !advanceBackward)
+        break;
+      if (advanceForward && advanceBackward)
+        advanceForward = forwardQueue.peekKey() <= backwardQueue.peekKey();
+      settled++;
+      if (advanceForward) {
+        int u = forwardQueue.poll();
+        double cost = forward.costOf(u);
+        for (int e = upOffsets[u]; e < upOffsets[u + 1]; e++) {
+          int v = upTargets[e];
+          double newCost = cost + upWeights[e];
+          if (forward.relax(v, newCost, e) && newCost + backward.costOf(v) < bestCost) {
+            bestCost = newCost + backward.costOf(v);
+            meetingNode = v;
+          }
+        }
+      } else {
+        int u = backwardQueue.poll();
+        double cost = backward.costOf(u);
+        for (int e = downOffsets[u]; e < downOffsets[u + 1]; e++) {
+          int v = downSources[e];
+          double newCost = cost + downWeights[e];
+          if (backward.relax(v, newCost, e) && newCost + forward.costOf(v) < bestCost) {
+            bestCost = newCost + forward.costOf(v);
+            meetingNode = v;
+          }
+        }
+      }
+    }
+    if (meetingNode == -1)
+      throw new NoSuchElementException("No path exists between the specified nodes");
+
+    // collect the hierarchy edges from source up to the meeting node and back down to target,
+    // before unpacking them overwrites the edges recorded in the forward workspace
+    List<int[]> hops = new ArrayList<>(); // {from, to, middle}
+    for (int v = meetingNode; forward.predecessorOf(v) != -1; ) {
+      int e = forward.predecessorOf(v);
+      int u = findSource(e);
+      hops.add(new int[] {u, v, upMiddles[e]});
+      v = u;
+    }
+    Collections.reverse(hops);
+    for (int v = meetingNode; backward.predecessorOf(v) != -1; ) {
+      int e = backward.predecessorOf(v);
+      int w = findTarget(e);
+      hops.add(new int[] {v, w, downMiddles[e]});
+      v = w;
+    }
+
+    // unpack every hop into original edges, accumulating the cost along the way
+    forward.label(source, 0, -1);
+    for (int[] hop : hops)
+      unpack(hop[0], hop[1], hop[2], forward);
+    return settled;
+  }
+
+  /**
+   * Returns the list of data values from nodes along the shortest path from the node with the
+   * provided start value through the node with the provided end value.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return list of data item from node along this shortest path
+   * @throws NoSuchElementException when no path from start to end is found or when either start or
+   *                                end data do not correspond to a graph node
+   */
+  public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+    int target = graph.idOf(end);
+    SearchWorkspace forward = SearchWorkspace.forward(graph.getNodeCount());
+    computeShortestPath(graph.idOf(start), target, forward,
+        SearchWorkspace.backward(graph.getNodeCount()));
+
+    List<NodeType> path = new LinkedList<>();
+    for (int id = target; id != -1; id = forward.predecessorOf(id))
+      path.add(0, graph.dataOf(id));
+    return path;
+  }
+
+  /**
+   * Returns the cost of the shortest path from the node containing the start data to the node
+   * containing the end data.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return the cost of the shortest path between these nodes
+   * @throws NoSuchElementException when no path from start to end is found or when either start or
+   *                                end data do not correspond to a graph node
+   */
+  public double shortestPathCost(NodeType start, NodeType end) {
+    int target = graph.idOf(end);
+    SearchWorkspace forward = SearchWorkspace.forward(graph.getNodeCount());
+    computeShortestPath(graph.idOf(start), target, forward,
+        SearchWorkspace.backward(graph.getNodeCount()));
+    return forward.costOf(target);
+  }
+
+  // the node that upward edge e leaves from
+  private int findSource(int e) {
+    int low = 0;
+    int high = graph.getNodeCount() - 1;
+    // upOffsets is non-decreasing, so find the last node whose run starts at or before e
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (upOffsets[mid] <= e)
+        low = mid;
+      else
+        high = mid - 1;
+    }
+    return low;
+  }
+
+  // the node that downward edge e enters
+  private int findTarget(int e) {
+    int low = 0;
+    int high = graph.getNodeCount() - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (downOffsets[mid] <= e)
+        low = mid;
+      else
+        high = mid - 1;
+    }
+    return low;
+  }
+
+  // Labels the nodes behind the hierarchy edge from u to v in path, with costs continuing from
+  // the cost of u. A shortcut around middle was built from the edge u to middle, which was stored
+  // as an edge entering middle, and the edge middle to v, which was stored as an edge leaving
+  // middle.
+  private void unpack(int u, int v, int middle, SearchWorkspace path) {
+    if (middle == -1) {
+      for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+        if (graph.targets[e] == v) {
+          path.label(v, path.costOf(u) + graph.weights[e], u);
+          return;
+        }
+      }
+      return;
+    }
+    for (int e = downOffsets[middle]; e < downOffsets[middle + 1]; e++) {
+      if (downSources[e] == u) {
+        unpack(u, middle, downMiddles[e], path);
+        break;
+      }
+    }
+    for (int e = upOffsets[middle]; e < upOffsets[middle + 1]; e++) {
+      if (upTargets[e] == v) {
+        unpack(middle, v, upMiddles[e], path);
+        break;
+      }
+    }
+  }
+
+  // The importance of contracting v next: the number of shortcuts it needs minus the number of
+  // edges it removes, plus the number of neighbors already contracted, which spreads contraction
+  // evenly over the graph.
+  private double priority(int v, EdgeList[] out, EdgeList[] in, boolean[] contracted,
+      int[] contractedNeighbors, Witness witness) {
+    int shortcuts = contract(v, out, in, contracted, witness, false);
+    return shortcuts - out[v].size - in[v].size + contractedNeighbors[v];
+  }
+
+  // Finds the shortcuts that contracting v requires, adding them when apply is true. A shortcut
+  // from u to x is needed when no path from u to x that avoids v is as cheap as the path through v.
+  private int contract(int v, EdgeList[] out, EdgeList[] in, boolean[] contracted,
+      Witness witness, boolean apply) {
+    int shortcuts = 0;
+    EdgeList incoming = in[v];
+    EdgeList outgoing = out[v];
+    for (int i = 0; i < incoming.size; i++) {
+      int u = incoming.neighbors[i];
+      double maxCost = -1;
+      for (int j = 0; j < outgoing.size; j++)
+        if (outgoing.neighbors[j] != u)
+          maxCost = Math.max(maxCost, incoming.weights[i] + outgoing.weights[j]);
+      // no shortcut can start at u when v only leads back to u
+      if (maxCost < 0)
+        continue;
+      witness.search(u, v, maxCost, out, contracted);
+      for (int j = 0; j < outgoing.size; j++) {
+        int x = outgoing.neighbors[j];
+        double viaCost = incoming.weights[i] + outgoing.weights[j];
+        if (x == u || witness.cost[x] <= viaCost)
+          continue;
+        shortcuts++;
+        if (apply) {
+          out[u].addOrLower(x, viaCost, v);
+          in[x].addOrLower(u, viaCost, v);
+        }
+      }
+    }
+    return shortcuts;
+  }
+
+  /**
+   * A bounded Dijkstra search over the uncontracted nodes, whose arrays are reused between
+   * searches and reset by undoing only the entries the previous search touched.
+   */
+  private static class Witness {
+    final double[] cost;
+    final IndexedHeap queue;
+    final int[] touched;
+    int touchedCount = 0;
+
+    Witness(int nodeCount) {
+      cost = new double[nodeCount];
+      Arrays.fill(cost, Double.POSITIVE_INFINITY);
+      queue = new IndexedHeap(nodeCount);
+      touched = new int[nodeCount];
+    }
+
+    // search from source without passing through skipped, stopping beyond maxCost
+    void search(int source, int skipped, double maxCost, EdgeList[] out, boolean[] contracted) {
+      for (int i = 0; i < touchedCount; i++)
+        cost[touched[i]] = Double.POSITIVE_INFINITY;
+      touchedCount = 0;
+      queue.clear();
+
+      cost[source] = 0;
+      touched[touchedCount++] = source;
+      queue.insertOrDecrease(source, 0);
+      int settled = 0;
+      while (!queue.isEmpty() && queue.peekKey() <= maxCost && settled < WITNESS_SETTLE_LIMIT) {
+        int u = queue.poll();
+        settled++;
+        EdgeList edges = out[u];
+        for (int i = 0; i < edges.size; i++) {
+          int v = edges.neighbors[i];
+          if (v == skipped || contracted[v])
+            continue;
+          double newCost = cost[u] + edges.weights[i];
+          if (newCost < cost[v]) {
+            if (cost[v] == Double.POSITIVE_INFINITY)
+              touched[touchedCount++] = v;
+            cost[v] = newCost;
+            queue.insertOrDecrease(v, newCost);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Builds a hierarchy for the undirected .dot file named by the first argument (campus.dot by
+   * default), then prints its preprocessing statistics and compares random queries against
+   * Dijkstra's algorithm on the same snapshot.
+   */
+  public static void main(String[] args) throws IOException {
+    String filepath = args.length > 0 ? args[0] : "campus.dot";
+    DijkstraGraph<String, Double> source = new DijkstraGraph<>(new HashtableMap<>());
+    for (String line : Files.readAllLines(Paths.get(filepath))) {
+      String[] parts = line.split("\" -- \"|\" \\[seconds=|\\];");
+      if (line.contains("--") && parts.length >= 3) {
+        String node1 = parts[0].replace("\"", "");
+        String node2 = parts[1].replace("\"", "");
+        Double weight = Double.parseDouble(parts[2]);
+        source.insertNode(node1);
+        source.insertNode(node2);
+        source.insertEdge(node1, node2, weight);
+        source.insertEdge(node2, node1, weight);
+      }
+    }
+    CompactGraph<String> graph = source.freeze();
+    ContractionHierarchy<String> hierarchy = new ContractionHierarchy<>(graph);
+    System.out.println(hierarchy.statistics());
+
+    int nodeCount = graph.getNodeCount();
+    double[] dist = new double[nodeCount];
+    int[] pred = new int[nodeCount];
+    Random random = new Random(1);
+    int queries = 10000;
+    long dijkstraSettled = 0;
+    long hierarchySettled = 0;
+    long dijkstraNanos = 0;
+    long hierarchyNanos = 0;
+    for (int i = 0; i < queries; i++) {
+      int s = random.nextInt(nodeCount);
+      int t = random.nextInt(nodeCount);
+      try {
+        // both searches are timed in the reusable workspaces, and Dijkstra's settled nodes are
+        // counted by a separate search
+        dijkstraSettled += graph.computeShortestPath(s, t, dist, pred);
+        long before = System.nanoTime();
+        graph.computeCost(s, t);
+        long middle = System.nanoTime();
+        hierarchySettled += hierarchy.computeShortestPath(s, t, SearchWorkspace.forward(nodeCount),
+            SearchWorkspace.backward(nodeCount));
+        hierarchyNanos += System.nanoTime() - middle;
+        dijkstraNanos += middle - before;
+      } catch (NoSuchElementException e) {
+        // unreachable pairs are left out of the comparison
+      }
+    }
+    System.out.printf("Dijkstra: %.1f settled, %.1f us per query%n",
+        (double) dijkstraSettled / queries, dijkstraNanos / 1000.0 / queries);
+    System.out.printf("Hierarchy: %.1f settled, %.1f us per query (%.1fx faster)%n",
+        (double) hierarchySettled / queries, hierarchyNanos / 1000.0 / queries,
+        (double) dijkstraNanos / Math.max(1, hierarchyNanos));
+  }
+
+  // JUnit test methods
+
+  /**
+   * Checks that hierarchy queries on a random directed graph return the same costs as Dijkstra's
+   * algorithm, and that the unpacked paths only use original edges whose weights add up to that
+   * cost.
+   */
+  @Test
+  public void testQueriesMatchDijkstra() {
+    Random random = new Random(5);
+    DijkstraGraph<Integer, Double> source = new DijkstraGraph<>(new HashtableMap<>());
+    for (int i = 0; i < 300; i++)
+      source.insertNode(i);
+    for (int i = 0; i < 1200; i++)
+      source.insertEdge(random.nextInt(300), random.nextInt(300), 1 + random.nextInt(20) * 1.0);
+    CompactGraph<Integer> graph = source.freeze();
+    ContractionHierarchy<Integer> hierarchy = new ContractionHierarchy<>(graph);
+
+    for (int query = 0; query < 300; query++) {
+      int start = random.nextInt(300);
+      int end = random.nextInt(300);
+      double expected;
+      try {
+        expected = source.shortestPathCost(start, end);
+      } catch (NoSuchElementException e) {
+        Assertions.assertThrows(NoSuchElementException.class,
+            () -> hierarchy.shortestPathCost(start, end));
+        continue;
+      }
+      Assertions.assertEquals(expected, hierarchy.shortestPathCost(start, end), 1e-9);
+      List<Integer> path = hierarchy.shortestPathData(start, end);
+      Assertions.assertEquals(start, path.get(0));
+      Assertions.assertEquals(end, path.get(path.size() - 1));
+      double total = 0;
+      for (int i = 0; i + 1 < path.size(); i++)
+        total += source.getEdge(path.get(i), path.get(i + 1));
+      Assertions.assertEquals(expected, total, 1e-9);
+    }
+  }
+
+  /**
+   * Checks the lecture example's paths through the hierarchy and the reported statistics.
+   */
+  @Test
+  public void testLectureExample() {
+    DijkstraGraph<String, Integer> source = DijkstraGraph.createGraphFromExample();
+    ContractionHierarchy<String> hierarchy = new ContractionHierarchy<>(source.freeze());
+
+    Assertions.assertEquals(14, hierarchy.shortestPathCost("A", "E"));
+    Assertions.assertEquals(Arrays.asList("A", "C", "D", "F", "G"),
+        hierarchy.shortestPathData("A", "G"));
+    Assertions.assertThrows(NoSuchElementException.class,
+        () -> hierarchy.shortestPathCost("E", "C"));
+    Assertions.assertTrue(hierarchy.statistics().contains("Shortcuts: "));
+  }
+}
@@ -0,0 +1,441 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * This DeltaStepping class computes the shortest paths from one node of a CompactGraph to every
+ * node it reaches, spreading the work over the threads of a ForkJoinPool. Tentative costs are
+ * grouped into buckets of width delta, and the buckets are emptied in order of increasing cost.
+ * Within a bucket, all light edges (weight at most delta) leaving the bucket's nodes are relaxed in
+ * parallel, repeatedly, until the bucket stays empty; the heavy edges of the nodes settled there
+ * are then relaxed in parallel once, since they can only reach later buckets. Costs are lowered
+ * with compare-and-set, so relaxations from different threads never lose an update.
+ *
+ * A small delta does little wasted work but leaves little to do in parallel, while a large delta
+ * finds more work per bucket at the price of relaxing some nodes more than once. Without an
+ * explicit delta, one is chosen from the weight distribution of the graph: a typical heavy weight
+ * divided by the average number of edges leaving a node.
+ *
+ * @param <NodeType> is the data type stored at each graph node
+ */
+public class DeltaStepping<NodeType> {
+
+  // the fewest nodes whose edges are relaxed by a separate task
+  private static final int LEAF_SIZE = 256;
+
+  protected final CompactGraph<NodeType> graph;
+  protected final double delta;
+  protected final ForkJoinPool pool;
+
+  /**
+   * A growable array of node ids, filled by a single task.
+   */
+  private static class IdList {
+    int[] ids = new int[16];
+    int size = 0;
+
+    void add(int id) {
+      if (size == ids.length)
+        ids = Arrays.copyOf(ids, size * 2);
+      ids[size++] = id;
+    }
+
+    void addAll(IdList other) {
+      for (int i = 0; i < other.size; i++)
+        add(other.ids[i]);
+    }
+  }
+
+  /**
+   * The state of one search: the cost of every node, stored as the bits of a non-negative double,
+   * which order the same way as the costs themselves, and the round each node was last relaxed in,
+   * with the cost it had when that round began.
+   */
+  private static class Search {
+    final AtomicLongArray cost;
+    final int[] round;
+    final double[] roundCost;
+
+    Search(int nodeCount) {
+      cost = new AtomicLongArray(nodeCount);
+      round = new int[nodeCount];
+      roundCost = new double[nodeCount];
+      long infinity = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+      for (int id = 0; id < nodeCount; id++)
+        cost.set(id, infinity);
+    }
+
+    double costOf(int id) {
+      return Double.longBitsToDouble(cost.get(id));
+    }
+
+    /**
+     * Lowers the cost of a node when newCost is lower than its current cost.
+     *
+     * @return true if the cost was lowered
+     */
+    boolean lower(int id, double newCost) {
+      long newBits = Double.doubleToRawLongBits(newCost);
+      long oldBits = cost.get(id);
+      while (newBits < oldBits) {
+        if (cost.compareAndSet(id, oldBits, newBits))
+          return true;
+        oldBits = cost.get(id);
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Relaxes the light or heavy edges leaving a range of nodes, splitting the range between tasks
+   * while it is large, and returns every node whose cost was lowered.
+   */
+  private class Relaxation extends RecursiveTask<IdList> {
+    private static final long serialVersionUID = 1L;
+    private final Search search;
+    private final int[] nodes;
+    private final int from;
+    private final int to;
+    private final boolean light;
+
+    Relaxation(Search search, int[] nodes, int from, int to, boolean light) {
+      this.search = search;
+      this.nodes = nodes;
+      this.from = from;
+      this.to = to;
+      this.light = light;
+    }
+
+    @Override
+    protected IdList compute() {
+      if (to - from > LEAF_SIZE) {
+        int middle = (from + to) >>> 1;
+        Relaxation left = new Relaxation(search, nodes, from, middle, light);
+        left.fork();
+        IdList lowered = new Relaxation(search, nodes, middle, to, light).compute();
+        lowered.addAll(left.join());
+        return lowered;
+      }
+      IdList lowered = new IdList();
+      for (int i = from; i < to; i++) {
+        int u = nodes[i];
+        // relax from the cost u had when the round began, even if another task has lowered it
+        // since, which the next round makes up for
+        double cost = search.roundCost[u];
+        for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+          double weight = graph.weights[e];
+          if ((weight <= delta) == light && search.lower(graph.targets[e], cost + weight))
+            lowered.add(graph.targets[e]);
+        }
+      }
+      return lowered;
+    }
+  }
+
+  /**
+   * Prepares parallel searches on the common ForkJoinPool, with a delta chosen for the graph.
+   *
+   * @param graph the snapshot to search
+   */
+  public DeltaStepping(CompactGraph<NodeType> graph) {
+    this(graph, ForkJoinPool.commonPool(), chooseDelta(graph));
+  }
+
+  /**
+   * Prepares parallel searches on the provided pool, with the provided bucket width.
+   *
+   * @param graph the snapshot to search
+   * @param pool  the pool whose threads relax edges
+   * @param delta the width of each bucket of costs
+   * @throws IllegalArgumentException if delta is not positive
+   */
+  public DeltaStepping(CompactGraph<NodeType> graph, ForkJoinPool pool, double delta) {
+    if (!(delta > 0))
+      throw new IllegalArgumentException("Delta must be positive");
+    this.graph = graph;
+    this.pool = pool;
+    this.delta = delta;
+  }
+
+  /**
+   * Chooses a bucket width for a graph: the 90th percentile of its edge weights divided by the
+   * average number of edges leaving a node, so that a node's light edges together span about one
+   * bucket. Graphs without positive weights get a width of 1.
+   *
+   * @param graph the graph to choose a bucket width for
+   * @return a positive bucket width
+   */
+  public static double chooseDelta(CompactGraph<?> graph) {
+    double[] positive = Arrays.stream(graph.weights).filter(w -> w > 0).sorted().toArray();
+    if (positive.length == 0)
+      return 1;
+    double typical = positive[(int) (positive.length * 0.9)];
+    double averageDegree = Math.max(1.0, (double) graph.getEdgeCount() / graph.getNodeCount());
+    return Math.max(positive[0], typical / averageDegree);
+  }
+
+  /**
+   * Returns the bucket width used by searches.
+   *
+   * @return the width of each bucket of costs
+   */
+  public double getDelta() {
+    return delta;
+  }
+
+  /**
+   * Computes the cost of reaching every node from source, and the node each one is reached from.
+   * The costs equal those found by Dijkstra's algorithm, but when several shortest paths lead to a
+   * node, the predecessors may follow a different one of them.
+   *
+   * @param source the id of the node the search starts from
+   * @param dist   array of getNodeCount() entries that receives the costs, infinite when unreached
+   * @param pred   array of getNodeCount() entries that receives the id of the node before each
+   *               reached node, -1 for the source and unreached nodes
+   */
+  public void computeDistances(int source, double[] dist, int[] pred) {
+    Search search = new Search(graph.getNodeCount());
+    search.lower(source, 0);
+    TreeMap<Long, IdList> buckets = new TreeMap<>();
+    IdList first = new IdList();
+    first.add(source);
+    buckets.put(0L, first);
+
+    int round = 0;
+    int[] settledIn = new int[graph.getNodeCount()]; // the last bucket each node was settled in
+    int bucketCount = 0;
+    while (!buckets.isEmpty()) {
+      long bucket = buckets.firstKey();
+      bucketCount++;
+      IdList settled = new IdList();
+      IdList members;
+      // relax light edges until no node's cost drops back into this bucket
+      while ((members = buckets.remove(bucket)) != null) {
+        round++;
+        IdList frontier = new IdList();
+        for (int i = 0; i < members.size; i++) {
+          int u = members.ids[i];
+          // skip nodes listed twice, or that have since moved to an earlier bucket
+          if (search.round[u] == round || bucketOf(search.costOf(u)) != bucket)
+            continue;
+          search.round[u] = round;
+          search.roundCost[u] = search.costOf(u);
+          frontier.add(u);
+          if (settledIn[u] != bucketCount) {
+            settledIn[u] = bucketCount;
+            settled.add(u);
+          }
+        }
+        fill(buckets, search, relax(search, frontier, true));
+      }
+      // then relax the heavy edges of every node settled in it once, from its final cost
+      for (int i = 0; i < settled.size; i++)
+        search.roundCost[settled.ids[i]] = search.costOf(settled.ids[i]);
+      fill(buckets, search, relax(search, settled, false));
+    }
+
+    for (int v = 0; v < dist.length; v++)
+      dist[v] = search.costOf(v);
+    findPredecessors(search, source, pred);
+  }
+
+  /**
+   * Relaxes the light or heavy edges leaving a list of nodes, in parallel when the list is long.
+   */
+  private IdList relax(Search search, IdList nodes, boolean light) {
+    Relaxation relaxation = new Relaxation(search, nodes.ids, 0, nodes.size, light);
+    return nodes.size > LEAF_SIZE ? pool.invoke(relaxation) : relaxation.compute();
+  }
+
+  /**
+   * Adds each node whose cost was lowered to the bucket of its new cost.
+   */
+  private void fill(TreeMap<Long, IdList> buckets, Search search, IdList lowered) {
+    for (int i = 0; i < lowered.size; i++) {
+      int v = lowered.ids[i];
+      buckets.computeIfAbsent(bucketOf(search.costOf(v)), key -> new IdList()).add(v);
+    }
+  }
+
+  private long bucketOf(double cost) {
+    return (long) (cost / delta);
+  }
+
+  /**
+   * Picks the predecessor of every reached node in parallel, once all costs are final. The
+   * predecessor must complete a shortest path and must have been relaxed in an earlier round than
+   * the node itself, which rules out cycles among edges of weight zero.
+   */
+  private void findPredecessors(Search search, int source, int[] pred) {
+    pool.submit(() -> IntStream.range(0, pred.length).parallel().forEach(v -> {
+      pred[v] = -1;
+      double cost = search.costOf(v);
+      if (v == source || cost == Double.POSITIVE_INFINITY)
+        return;
+      for (int e = graph.reverseOffsets[v]; e < graph.reverseOffsets[v + 1]; e++) {
+        int u = graph.sources[e];
+        if (search.costOf(u) + graph.reverseWeights[e] == cost
+            && search.round[u] < search.round[v] && (pred[v] == -1 || u < pred[v]))
+          pred[v] = u;
+      }
+    })).join();
+  }
+
+  /**
+   * Computes the shortest paths from the node containing the start data to every node reachable
+   * from it.
+   *
+   * @param start the data item in the node the paths start from
+   * @return the tree of shortest paths from that node
+   * @throws NoSuchElementException when start does not correspond to a graph node
+   */
+  public ShortestPathTree<NodeType> shortestPathTree(NodeType start) {
+    double[] cost = new double[graph.getNodeCount()];
+    int[] predecessor = new int[graph.getNodeCount()];
+    computeDistances(graph.idOf(start), cost, predecessor);
+    return new ShortestPathTree<>(start, Arrays.asList(graph.data), cost, predecessor);
+  }
+
+  /**
+   * Builds a random graph with the number of nodes given by the first argument (one million by
+   * default), then times searches from the same sources with Dijkstra's algorithm and with delta
+   * stepping on 1, 2, 4, ... threads up to the second argument (the number of available processors
+   * by default), and prints the speedup of each thread count over a single thread.
+   */
+  public static void main(String[] args) {
+    int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int maxThreads =
+        args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+    int degree = 8;
+    Random random = new Random(1);
+    Integer[] data = new Integer[nodeCount];
+    int[] offsets = new int[nodeCount + 1];
+    int[] targets = new int[nodeCount * degree];
+    double[] weights = new double[nodeCount * degree];
+    for (int u = 0; u < nodeCount; u++) {
+      data[u] = u;
+      offsets[u + 1] = (u + 1) * degree;
+      // one edge along a ring keeps every node reachable, and the rest go anywhere
+      targets[u * degree] = (u + 1) % nodeCount;
+      weights[u * degree] = 1 + random.nextInt(100);
+      for (int e = u * degree + 1; e < (u + 1) * degree; e++) {
+        targets[e] = random.nextInt(nodeCount);
+        weights[e] = 1 + random.nextInt(100);
+      }
+    }
+    CompactGraph<Integer> graph = new CompactGraph<>(data, offsets, targets, weights, 0);
+    int[] sources = random.ints(3, 0, nodeCount).toArray();
+    double[] expected = new double[nodeCount];
+    double[] dist = new double[nodeCount];
+    int[] pred = new int[nodeCount];
+
+    long dijkstraNanos = 0;
+    for (int source : sources) {
+      long before = System.nanoTime();
+      graph.computeDistances(source, false, expected, pred);
+      dijkstraNanos += System.nanoTime() - before;
+    }
+    System.out.printf("Graph: %d nodes, %d edges, delta %.2f%n", nodeCount, targets.length,
+        chooseDelta(graph));
+    System.out.printf("Dijkstra: %.1f ms per search%n", dijkstraNanos / 1e6 / sources.length);
+
+    long singleThreadNanos = 0;
+    for (int threads = 1; threads <= maxThreads; threads = threads == maxThreads ? threads + 1
+        : Math.min(threads * 2, maxThreads)) {
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      DeltaStepping<Integer> engine = new DeltaStepping<>(graph, pool, chooseDelta(graph));
+      engine.computeDistances(sources[0], dist, pred); // warm up
+      long nanos = 0;
+      boolean matches = true;
+      for (int source : sources) {
+        graph.computeDistances(source, false, expected, pred);
+        long before = System.nanoTime();
+        engine.computeDistances(source, dist, pred);
+        nanos += System.nanoTime() - before;
+        matches &= Arrays.equals(expected, dist);
+      }
+      pool.shutdown();
+      if (threads == 1)
+        singleThreadNanos = nanos;
+      System.out.printf("%2d threads: %.1f ms per search, %.2fx speedup, %.0f%% efficiency%s%n",
+          threads, nanos / 1e6 / sources.length, (double) singleThreadNanos / nanos,
+          100.0 * singleThreadNanos / nanos / threads, matches ? "" : " (COSTS DIFFER)");
+    }
+  }
+
+  // JUnit test methods
+
+  /**
+   * Checks that searches on a random graph with some zero weight edges find the same costs as
+   * Dijkstra's algorithm for several thread counts and bucket widths, and that following the
+   * predecessors from every reached node leads back to the source along edges adding up to its
+   * cost.
+   */
+  @Test
+  public void testMatchesDijkstra() {
+    Random random = new Random(3);
+    DijkstraGraph<Integer, Double> source = new DijkstraGraph<>(new HashtableMap<>());
+    for (int i = 0; i < 3000; i++)
+      source.insertNode(i);
+    for (int i = 0; i < 15000; i++)
+      source.insertEdge(random.nextInt(3000), random.nextInt(3000), random.nextInt(10) * 0.5);
+    CompactGraph<Integer> graph = source.freeze();
+    double[] expected = new double[3000];
+    double[] dist = new double[3000];
+    int[] pred = new int[3000];
+
+    for (int threads : new int[] {1, 4}) {
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      for (double delta : new double[] {0.5, chooseDelta(graph), 100}) {
+        DeltaStepping<Integer> engine = new DeltaStepping<>(graph, pool, delta);
+        for (int start = 0; start < 3000; start += 500) {
+          graph.computeDistances(start, false, expected, pred);
+          engine.computeDistances(start, dist, pred);
+          Assertions.assertArrayEquals(expected, dist);
+          for (int v = 0; v < 3000; v++) {
+            if (v == start || dist[v] == Double.POSITIVE_INFINITY) {
+              Assertions.assertEquals(-1, pred[v]);
+              continue;
+            }
+            // the predecessors lead back to the source within as many steps as there are nodes
+            int steps = 0;
+            for (int u = v; u != start; u = pred[u])
+              Assertions.assertTrue(++steps < 3000);
+            Assertions.assertEquals(dist[v], dist[pred[v]] + source.getEdge(pred[v], v));
+          }
+        }
+      }
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Checks the tree returned for node data, and the bucket width chosen for the example graph.
+   */
+  @Test
+  public void testShortestPathTreeAndDelta() {
+    DijkstraGraph<String, Integer> source = DijkstraGraph.createGraphFromExample();
+    DeltaStepping<String> engine = new DeltaStepping<>(source.snapshot());
+
+    ShortestPathTree<String> tree = engine.shortestPathTree("A");
+    Assertions.assertEquals(Arrays.asList("A", "C", "D", "F", "G", "H"), tree.pathTo("H"));
+    Assertions.assertEquals(13, tree.costTo("H"));
+    Assertions.assertEquals(4, tree.costTo("B"));
+    Assertions.assertEquals(14, tree.costTo("E"));
+    Assertions.assertFalse(engine.shortestPathTree("E").reaches("A"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> engine.shortestPathTree("Z"));
+
+    // 9 edges leave 8 nodes, and 10 is the 90th percentile of the positive weights
+    Assertions.assertEquals(10 / (9.0 / 8), engine.getDelta());
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> new DeltaStepping<>(source.snapshot(), ForkJoinPool.commonPool(), 0));
+  }
+}
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
+import java.util.stream.IntStream;
 
 /**
  * This class extends the BaseGraph data structure with additional methods for computing the total
@@ -24,7 +25,8 @@ public class DijkstraGraph<NodeType, EdgeType extends Number> extends BaseGraph<
    * specific path between the start node and another node in the graph. The final node in this path
    * is stored in its node field. The total cost of this path is stored in its cost field. And the
    * predecessor SearchNode within this path is referenced by the predecessor field (this field is
-   * null within the SearchNode containing the starting node in its node field).
+   * null within the SearchNode containing the starting node in its node field), and the weight of
+   * the edge from the predecessor's node to this node is stored in its segmentWeight field.
    *
    * SearchNodes are Comparable and are sorted by cost so that the lowest cost SearchNode has the
    * highest priority within a java.util.PriorityQueue.
@@ -33,11 +35,17 @@ public class DijkstraGraph<NodeType, EdgeType extends Number> extends BaseGraph<
     public Node node;
     public double cost;
     public SearchNode predecessor;
+    public double segmentWeight;
 
     public SearchNode(Node node, double cost, SearchNode predecessor) {
+      this(node, cost, predecessor, 0);
+    }
+
+    public SearchNode(Node node, double cost, SearchNode predecessor, double segmentWeight) {
       this.node = node;
       this.cost = cost;
       this.predecessor = predecessor;
+      this.segmentWeight = segmentWeight;
     }
 
     public int compareTo(SearchNode other) {
@@ -49,6 +57,54 @@ public class DijkstraGraph<NodeType, EdgeType extends Number> extends BaseGraph<
     }
   }
 
+  /**
+   * The algorithms that shortestPathData and shortestPathCost can use to answer a query. Every
+   * strategy finds a path of the same minimal cost; they differ in how much of the graph they need
+   * to explore before they can stop.
+   */
+  public enum SearchStrategy {
+    DIJKSTRA, // search forward from the start node until the end node is settled
+    BIDIRECTIONAL, // search forward from the start and backward from the end until they meet
+    ALT, // A* search guided by lower bounds from precomputed landmark costs
+    CONTRACTION_HIERARCHY, // upward bidirectional search over a precomputed node hierarchy
+    ALL_PAIRS // next hop lookups in a precomputed table of every pair of nodes
+  }
+
+  // the strategy used by shortestPathData and shortestPathCost
+  protected SearchStrategy searchStrategy = SearchStrategy.DIJKSTRA;
+
+  // The fields below are written by queries, which may run on several threads at once while the
+  // graph itself is not changing. They are volatile so that a structure built by one query is only
+  // seen by others once it is complete, and each query reads a structure into a local variable
+  // once. Queries that race to build the same structure each build an equal copy, and one is kept.
+  // The contraction hierarchy is the exception: it is too slow to build twice, so it is built under
+  // a lock.
+
+  // the number of nodes settled by the most recent query on any thread
+  protected volatile int lastSettledCount = 0;
+
+  // frozen copy of this graph, refrozen on first use after the graph changes
+  protected volatile CompactGraph<NodeType> snapshot = null;
+
+  // landmarks used by the ALT strategy, rebuilt on first use after the graph changes
+  protected volatile LandmarkIndex<NodeType> landmarkIndex = null;
+  protected int landmarkCount = 8;
+  protected LandmarkIndex.Selection landmarkSelection = LandmarkIndex.Selection.AVOID;
+
+  // hierarchy used by the CONTRACTION_HIERARCHY strategy, rebuilt on first use after changes
+  protected volatile ContractionHierarchy<NodeType> contractionHierarchy = null;
+  // held while building the hierarchy, so that concurrent queries wait for one build
+  private final Object hierarchyLock = new Object();
+
+  // table used by the ALL_PAIRS strategy, recomputed on first use after the graph changes
+  protected volatile AllPairsTable<NodeType> allPairsTable = null;
+
+  // trees that every edge change is reported to, so that they can repair themselves
+  protected List<DynamicShortestPathTree<NodeType, EdgeType>> maintainedTrees = new ArrayList<>();
+
+  // component labels used to reject queries between unconnected nodes, created by the first query
+  protected volatile ComponentIndex<NodeType, EdgeType> components = null;
+
   /**
    * Constructor that sets the map that the graph uses.
    *
@@ -58,6 +114,294 @@ public class DijkstraGraph<NodeType, EdgeType extends Number> extends BaseGraph<
     super(map);
   }
 
+  /**
+   * Insert a new node into the graph, and make room for it in every maintained shortest path tree
+   * and in the component labels.
+   *
+   * @param data is the data item stored in the new node
+   * @return true if the data is unique and can be inserted into a new node,
+   *         or false if this data is already in the graph
+   * @throws NullPointerException if data is null
+   */
+  @Override
+  public boolean insertNode(NodeType data) {
+    if (!super.insertNode(data))
+      return false;
+    if (components != null)
+      components.nodeInserted(version);
+    for (DynamicShortestPathTree<NodeType, EdgeType> tree : maintainedTrees)
+      tree.nodeInserted(version);
+    return true;
+  }
+
+  /**
+   * Insert a new directed edge with positive edges weight into the graph, or update the weight of
+   * the existing edge between pred and succ, and repair every maintained shortest path tree and
+   * the component labels.
+   *
+   * @param pred   is the data item contained in the new edge's predecesor node
+   * @param succ   is the data item contained in the new edge's successor node
+   * @param weight is the non-negative data item stored in the new edge
+   * @return true if the edge could be inserted or updated, or
+   *         false if the pred or succ data are not found in any graph nodes
+   */
+  @Override
+  public boolean insertEdge(NodeType pred, NodeType succ, EdgeType weight) {
+    if (maintainedTrees.isEmpty() && components == null)
+      return super.insertEdge(pred, succ, weight);
+    double oldWeight = Double.POSITIVE_INFINITY;
+    if (!maintainedTrees.isEmpty() && containsNode(pred) && containsNode(succ)
+        && containsEdge(pred, succ))
+      oldWeight = getEdge(pred, succ).doubleValue();
+    if (!super.insertEdge(pred, succ, weight))
+      return false;
+    int predId = nodes.get(pred).id;
+    int succId = nodes.get(succ).id;
+    if (components != null)
+      components.edgeInserted(predId, succId, version);
+    for (DynamicShortestPathTree<NodeType, EdgeType> tree : maintainedTrees)
+      tree.edgeChanged(predId, succId, oldWeight, weight.doubleValue(), version);
+    return true;
+  }
+
+  /**
+   * Remove an edge from the graph, and repair every maintained shortest path tree.
+   *
+   * @param pred the data item contained in the source node for the edge
+   * @param succ the data item contained in the target node for the edge
+   * @return true if the edge could be removed, or
+   *         false if such an edge is not found in the graph
+   */
+  @Override
+  public boolean removeEdge(NodeType pred, NodeType succ) {
+    if (maintainedTrees.isEmpty())
+      return super.removeEdge(pred, succ);
+    if (!containsNode(pred) || !containsNode(succ) || !containsEdge(pred, succ))
+      return false;
+    double oldWeight = getEdge(pred, succ).doubleValue();
+    super.removeEdge(pred, succ);
+    for (DynamicShortestPathTree<NodeType, EdgeType> tree : maintainedTrees)
+      tree.edgeChanged(nodes.get(pred).id, nodes.get(succ).id, oldWeight,
+          Double.POSITIVE_INFINITY, version);
+    return true;
+  }
+
+  /**
+   * Computes the shortest paths from the node containing the start data and keeps them up to date
+   * as edges are inserted, updated and removed, repairing only the nodes each change affects.
+   * The graph reports changes to the tree until stopMaintaining() is called with it.
+   *
+   * @param start the data item in the node the paths start from
+   * @return the maintained tree of shortest paths from that node
+   * @throws NoSuchElementException when start does not correspond to a graph node
+   */
+  public DynamicShortestPathTree<NodeType, EdgeType> maintainShortestPathTree(NodeType start) {
+    if (!nodes.containsKey(start)) {
+      throw new NoSuchElementException("Start node not found in graph");
+    }
+    DynamicShortestPathTree<NodeType, EdgeType> tree = new DynamicShortestPathTree<>(this, start);
+    maintainedTrees.add(tree);
+    return tree;
+  }
+
+  /**
+   * Stops reporting changes to a tree returned by maintainShortestPathTree(). The tree keeps
+   * answering queries, but recomputes itself from scratch after every change.
+   *
+   * @param tree the tree to stop maintaining
+   */
+  public void stopMaintaining(DynamicShortestPathTree<NodeType, EdgeType> tree) {
+    maintainedTrees.remove(tree);
+  }
+
+  /**
+   * Returns the component labels of this graph, brought up to date with its current state. The
+   * labels are created by the first call, and from then on inserted nodes and edges are merged
+   * into them as they are inserted. Queries never relabel the strongly connected components, so
+   * after a change this is the call that brings them up to date.
+   *
+   * @return the component labels of this graph
+   */
+  public ComponentIndex<NodeType, EdgeType> components() {
+    ComponentIndex<NodeType, EdgeType> index = componentIndex();
+    index.refresh();
+    return index;
+  }
+
+  /**
+   * Returns the component labels as they are, creating them on first use, for queries that only
+   * call mayReach() and so pay for at most a union-find rebuild after a removal.
+   *
+   * @return the component labels of this graph
+   */
+  protected ComponentIndex<NodeType, EdgeType> componentIndex() {
+    ComponentIndex<NodeType, EdgeType> index = components;
+    if (index == null)
+      components = index = new ComponentIndex<>(this);
+    return index;
+  }
+
+  /**
+   * Checks whether a path leads from the node containing the start data to the node containing
+   * the end data. Nodes in different components are told apart from their labels alone, and only
+   * nodes that the labels cannot decide between are searched for.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return true if both nodes are in the graph and a path connects them, and false otherwise
+   */
+  public boolean isReachable(NodeType start, NodeType end) {
+    if (!nodes.containsKey(start) || !nodes.containsKey(end))
+      return false;
+    Node startNode = nodes.get(start);
+    Node endNode = nodes.get(end);
+    ComponentIndex<NodeType, EdgeType> index = componentIndex();
+    if (!index.mayReach(startNode.id, endNode.id))
+      return false;
+    if (index.surelyReaches(startNode.id, endNode.id))
+      return true;
+    SearchWorkspace workspace = SearchWorkspace.forward(nodesById.size());
+    lastSettledCount = settleFrom(startNode, endNode, workspace);
+    return workspace.costOf(endNode.id) != Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Selects the algorithm used by shortestPathData and shortestPathCost.
+   *
+   * @param searchStrategy the strategy to use for later queries
+   * @throws NullPointerException if searchStrategy is null
+   */
+  public void setSearchStrategy(SearchStrategy searchStrategy) {
+    if (searchStrategy == null)
+      throw new NullPointerException("searchStrategy cannot be null");
+    this.searchStrategy = searchStrategy;
+  }
+
+  /**
+   * Returns the algorithm used by shortestPathData and shortestPathCost.
+   *
+   * @return the current search strategy
+   */
+  public SearchStrategy getSearchStrategy() {
+    return searchStrategy;
+  }
+
+  /**
+   * Sets how the ALT strategy chooses its landmarks. The landmarks are recomputed on the next ALT
+   * query.
+   *
+   * @param landmarkCount the number of landmarks to choose
+   * @param selection     the heuristic used to choose them
+   * @throws IllegalArgumentException if landmarkCount is negative
+   */
+  public void setLandmarks(int landmarkCount, LandmarkIndex.Selection selection) {
+    if (landmarkCount < 0)
+      throw new IllegalArgumentException("landmarkCount cannot be negative");
+    this.landmarkCount = landmarkCount;
+    this.landmarkSelection = selection;
+    this.landmarkIndex = null;
+  }
+
+  /**
+   * Returns the table used by the ALL_PAIRS strategy, computing it first when there is no table
+   * for the current state of this graph. The table can be saved and later handed back to
+   * setAllPairsTable() to avoid computing it again.
+   *
+   * @return the all pairs table for this graph
+   */
+  public AllPairsTable<NodeType> getAllPairsTable() {
+    AllPairsTable<NodeType> table = allPairsTable;
+    if (table == null || table.getGraph().getVersion() != version)
+      allPairsTable = table = new AllPairsTable<>(snapshot());
+    return table;
+  }
+
+  /**
+   * Returns the hierarchy used by the CONTRACTION_HIERARCHY strategy, building it first when there
+   * is no hierarchy for the current state of this graph. Building it contracts the whole graph, so
+   * calling this once after loading the graph keeps that cost out of the first query. Only one
+   * thread builds the hierarchy at a time, and queries that need it meanwhile wait for that build.
+   *
+   * @return the contraction hierarchy for this graph
+   */
+  public ContractionHierarchy<NodeType> getContractionHierarchy() {
+    ContractionHierarchy<NodeType> hierarchy = contractionHierarchy;
+    if (hierarchy != null && hierarchy.getGraph().getVersion() == version)
+      return hierarchy;
+    synchronized (hierarchyLock) {
+      // another thread may have built it while this one waited for the lock
+      hierarchy = contractionHierarchy;
+      if (hierarchy == null || hierarchy.getGraph().getVersion() != version)
+        contractionHierarchy = hierarchy = new ContractionHierarchy<>(snapshot());
+      return hierarchy;
+    }
+  }
+
+  /**
+   * Provides the table used by the ALL_PAIRS strategy, such as one loaded with
+   * AllPairsTable.load(path, snapshot()).
+   *
+   * @param table an all pairs table for the current state of this graph
+   * @throws IllegalArgumentException if the table was built for a different version of this graph
+   */
+  public void setAllPairsTable(AllPairsTable<NodeType> table) {
+    if (table.getGraph().getVersion() != version)
+      throw new IllegalArgumentException("table was built for a different version of this graph");
+    this.allPairsTable = table;
+  }
+
+  /**
+   * Returns the number of nodes settled by the most recent shortest path query, which shows how
+   * much of the graph each search strategy explores for the same query.
+   *
+   * @return the number of nodes settled by the last query
+   */
+  public int getLastSettledCount() {
+    return lastSettledCount;
+  }
+
+  /**
+   * Returns a frozen copy of the current state of this graph, reusing the previous copy when the
+   * graph has not changed since it was made.
+   *
+   * @return a CompactGraph snapshot of this graph
+   */
+  public CompactGraph<NodeType> snapshot() {
+    CompactGraph<NodeType> frozen = snapshot;
+    if (frozen == null || frozen.getVersion() != version)
+      snapshot = frozen = freeze();
+    return frozen;
+  }
+
+  /**
+   * Computes the shortest path between the provided start and end locations with the current
+   * search strategy.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return SearchNode for the final end node within the shortest path
+   * @throws NoSuchElementException when no path from start to end is found or when either start or
+   *                                end data do not correspond to a graph node
+   */
+  protected SearchNode computePath(NodeType start, NodeType end) {
+    // nodes in components that no path connects are rejected without searching
+    if (nodes.containsKey(start) && nodes.containsKey(end)
+        && !componentIndex().mayReach(nodes.get(start).id, nodes.get(end).id))
+      throw new NoSuchElementException("No path exists between the specified nodes");
+    switch (searchStrategy) {
+      case BIDIRECTIONAL:
+        return computeBidirectionalPath(start, end);
+      case ALT:
+        return computeLandmarkPath(start, end);
+      case CONTRACTION_HIERARCHY:
+        return computeHierarchyPath(start, end);
+      case ALL_PAIRS:
+        return computeTablePath(start, end);
+      default:
+        return computeShortestPath(start, end);
+    }
+  }
+
   /**
    * This helper method creates a network of SearchNodes while computing the shortest path between
    * the provided start and end locations. The SearchNode that is returned by this method is
@@ -77,55 +421,263 @@ public class DijkstraGraph<NodeType, EdgeType extends Number> extends BaseGraph<
       throw new NoSuchElementException("Start or end node not found in graph");
     }
 
-    // Priority queue for nodes to visit, sorted by path cost
-    PriorityQueue<SearchNode> queue = new PriorityQueue<>();
-    // Map to track visited nodes and the cost to reach them
-    MapADT<NodeType, SearchNode> visitedNodes = new PlaceholderMap<>();
-
-    // Get start node and add it to the queue with zero cost
+    // Tentative cost and predecessor of each node, kept in this thread's reusable workspace
+    SearchWorkspace workspace = SearchWorkspace.forward(nodesById.size());
     Node startNode = nodes.get(start);
-    queue.add(new SearchNode(startNode, 0, null));
+    Node endNode = nodes.get(end);
+    lastSettledCount = settleFrom(startNode, endNode, workspace);
+
+    // Throw exception if no path is found
+    if (workspace.costOf(endNode.id) == Double.POSITIVE_INFINITY)
+      throw new NoSuchElementException("No path exists between the specified nodes");
+    // Otherwise build the chain of SearchNodes that ends at the end node
+    return buildSearchPath(startNode, endNode, workspace);
+  }
+
+  /**
+   * Runs Dijkstra's algorithm from startNode, settling nodes in order of their cost until endNode
+   * is settled, or until every reachable node is settled when endNode is null. Nodes that are not
+   * reached are left with an infinite cost.
+   *
+   * @param startNode the node to search from
+   * @param endNode   the node to stop at, or null to settle every reachable node
+   * @param workspace freshly checked out workspace that receives each node's cost and the id of
+   *                  the node it was reached from
+   * @return the number of nodes settled
+   */
+  protected int settleFrom(Node startNode, Node endNode, SearchWorkspace workspace) {
+    // Priority queue of node ids, sorted by their tentative cost
+    IndexedHeap queue = workspace.getQueue();
+
+    // Add the start node to the queue with zero cost
+    workspace.relax(startNode.id, 0, -1);
 
     // Process nodes in the queue
+    int settled = 0;
     while (!queue.isEmpty()) {
-      // Poll the queue to get the node with the lowest cost
-      SearchNode current = queue.poll();
-
-      // Skip the node if it has been visited with a lower cost
-      if (visitedNodes.containsKey(current.node.data) && visitedNodes.get(
-          current.node.data).cost <= current.cost)
-        continue;
-
-      // Mark the current node as visited
-      visitedNodes.put(current.node.data, current);
-
-      // If the current node is the end node, return it
-      if (current.node.data.equals(end))
-        return current;
-
-      // Explore all adjacent nodes
-      for (Edge edge : current.node.edgesLeaving) {
-        Node adjacent = edge.successor;
-        double newCost = current.cost + edge.data.doubleValue();
-
-        // Add adjacent node to the queue if not visited or found a shorter path
-        if (!visitedNodes.containsKey(adjacent.data) || visitedNodes.get(
-            adjacent.data).cost > newCost) {
-          queue.add(new SearchNode(adjacent, newCost, current));
+      // Poll the queue to settle the node with the lowest cost
+      Node current = nodesById.get(queue.poll());
+      settled++;
+
+      // Stop once the end node is settled
+      if (current == endNode)
+        break;
+
+      // Explore all adjacent nodes, lowering their cost when a shorter path is found
+      double currentCost = workspace.costOf(current.id);
+      EdgeList edges = current.edgesLeaving;
+      for (int i = 0; i < edges.size(); i++) {
+        Edge edge = edges.get(i); // indexed, so that no iterator is allocated per settled node
+        workspace.relax(edge.successor.id, currentCost + edge.data.doubleValue(), current.id);
+      }
+    }
+    return settled;
+  }
+
+  /**
+   * Links together the SearchNodes along a settled path by following predecessor references back
+   * from the end node, so that only the nodes on the final path are allocated.
+   *
+   * @param startNode the node the search started from
+   * @param endNode   the settled node at the end of the path
+   * @param workspace the workspace holding the settled cost and predecessor of each node
+   * @return SearchNode for the end node within this path
+   */
+  protected SearchNode buildSearchPath(Node startNode, Node endNode, SearchWorkspace workspace) {
+    List<Node> reversed = new ArrayList<>();
+    for (Node node = endNode; node != startNode;
+        node = nodesById.get(workspace.predecessorOf(node.id)))
+      reversed.add(node);
+    SearchNode searchNode = new SearchNode(startNode, 0, null);
+    for (int i = reversed.size() - 1; i >= 0; i--) {
+      Node node = reversed.get(i);
+      searchNode = new SearchNode(node, workspace.costOf(node.id), searchNode,
+          segmentWeight(searchNode.node, node));
+    }
+    return searchNode;
+  }
+
+  /**
+   * Returns the weight of the edge from pred to succ, found through the index of pred's leaving
+   * edges rather than by scanning them.
+   */
+  private double segmentWeight(Node pred, Node succ) {
+    return pred.edgesLeaving.find(succ).data.doubleValue();
+  }
+
+  /**
+   * This helper method computes the same shortest path as computeShortestPath, but grows two
+   * searches at once: one forward from start over edgesLeaving, and one backward from end over
+   * edgesEntering. Each step advances whichever search has the cheaper queue head. Whenever an edge
+   * reaches a node that the other search has already labelled, the combined cost is a candidate
+   * for the best path. The search stops once the two queue heads together cost at least as much as
+   * the best candidate, since no unexplored path can be cheaper.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return SearchNode for the final end node within the shortest path
+   * @throws NoSuchElementException when no path from start to end is found or when either start or
+   *                                end data do not correspond to a graph node
+   */
+  protected SearchNode computeBidirectionalPath(NodeType start, NodeType end) {
+    if (!nodes.containsKey(start) || !nodes.containsKey(end)) {
+      throw new NoSuchElementException("Start or end node not found in graph");
+    }
+
+    // the forward workspace holds costs from the start node and predecessors, the backward
+    // workspace holds costs to the end node and the successor each node was reached from
+    int nodeCount = nodesById.size();
+    SearchWorkspace forward = SearchWorkspace.forward(nodeCount);
+    SearchWorkspace backward = SearchWorkspace.backward(nodeCount);
+    IndexedHeap forwardQueue = forward.getQueue();
+    IndexedHeap backwardQueue = backward.getQueue();
+
+    Node startNode = nodes.get(start);
+    Node endNode = nodes.get(end);
+    forward.relax(startNode.id, 0, -1);
+    backward.relax(endNode.id, 0, -1);
+
+    // cost of the best path found so far, and the node where its two halves meet
+    double bestCost = startNode == endNode ? 0 : Double.POSITIVE_INFINITY;
+    Node meetingNode = startNode == endNode ? startNode : null;
+
+    lastSettledCount = 0;
+    while (!forwardQueue.isEmpty() && !backwardQueue.isEmpty()
+        && forwardQueue.peekKey() + backwardQueue.peekKey() < bestCost) {
+      lastSettledCount++;
+      if (forwardQueue.peekKey() <= backwardQueue.peekKey()) {
+        Node current = nodesById.get(forwardQueue.poll());
+        double currentCost = forward.costOf(current.id);
+        for (Edge edge : current.edgesLeaving) {
+          Node adjacent = edge.successor;
+          double newCost = currentCost + edge.data.doubleValue();
+          // check whether the backward search has already reached this node
+          if (forward.relax(adjacent.id, newCost, current.id)
+              && newCost + backward.costOf(adjacent.id) < bestCost) {
+            bestCost = newCost + backward.costOf(adjacent.id);
+            meetingNode = adjacent;
+          }
+        }
+      } else {
+        Node current = nodesById.get(backwardQueue.poll());
+        double currentCost = backward.costOf(current.id);
+        for (Edge edge : current.edgesEntering) {
+          Node adjacent = edge.predecessor;
+          double newCost = currentCost + edge.data.doubleValue();
+          // check whether the forward search has already reached this node
+          if (backward.relax(adjacent.id, newCost, current.id)
+              && newCost + forward.costOf(adjacent.id) < bestCost) {
+            bestCost = newCost + forward.costOf(adjacent.id);
+            meetingNode = adjacent;
+          }
         }
       }
     }
 
-    // Throw exception if no path is found
-    throw new NoSuchElementException("No path exists between the specified nodes");
+    if (meetingNode == null)
+      throw new NoSuchElementException("No path exists between the specified nodes");
+
+    // join the backward half onto the forward half by recording it as predecessors and costs
+    for (Node node = meetingNode; node != endNode; ) {
+      Node next = nodesById.get(backward.predecessorOf(node.id));
+      forward.label(next.id, bestCost - backward.costOf(next.id), node.id);
+      node = next;
+    }
+    return buildSearchPath(startNode, endNode, forward);
+  }
+
+  /**
+   * This helper method computes the same shortest path as computeShortestPath with the ALT
+   * algorithm. The landmark costs are taken from a frozen snapshot of this graph, which is rebuilt
+   * whenever the graph has changed since the landmarks were chosen. Since an unchanged graph
+   * freezes with the same node ids, the snapshot's results index directly into nodesById.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return SearchNode for the final end node within the shortest path
+   * @throws NoSuchElementException when no path from start to end is found or when either start or
+   *                                end data do not correspond to a graph node
+   */
+  protected SearchNode computeLandmarkPath(NodeType start, NodeType end) {
+    if (!nodes.containsKey(start) || !nodes.containsKey(end)) {
+      throw new NoSuchElementException("Start or end node not found in graph");
+    }
+    LandmarkIndex<NodeType> index = landmarkIndex;
+    if (index == null || index.getGraph().getVersion() != version)
+      landmarkIndex = index = new LandmarkIndex<>(snapshot(), landmarkCount, landmarkSelection);
+
+    Node startNode = nodes.get(start);
+    Node endNode = nodes.get(end);
+    SearchWorkspace workspace = SearchWorkspace.forward(nodesById.size());
+    lastSettledCount = index.computeShortestPath(startNode.id, endNode.id, workspace);
+    return buildSearchPath(startNode, endNode, workspace);
+  }
+
+  /**
+   * This helper method computes the same shortest path as computeShortestPath with a contraction
+   * hierarchy built from a frozen snapshot of this graph. The hierarchy is rebuilt whenever the
+   * graph has changed since it was built, and its unpacked paths contain only original edges.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return SearchNode for the final end node within the shortest path
+   * @throws NoSuchElementException when no path from start to end is found or when either start or
+   *                                end data do not correspond to a graph node
+   */
+  protected SearchNode computeHierarchyPath(NodeType start, NodeType end) {
+    if (!nodes.containsKey(start) || !nodes.containsKey(end)) {
+      throw new NoSuchElementException("Start or end node not found in graph");
+    }
+    ContractionHierarchy<NodeType> hierarchy = getContractionHierarchy();
+
+    Node startNode = nodes.get(start);
+    Node endNode = nodes.get(end);
+    int nodeCount = nodesById.size();
+    SearchWorkspace forward = SearchWorkspace.forward(nodeCount);
+    lastSettledCount = hierarchy.computeShortestPath(startNode.id, endNode.id, forward,
+        SearchWorkspace.backward(nodeCount));
+    return buildSearchPath(startNode, endNode, forward);
+  }
+
+  /**
+   * This helper method looks up the same shortest path as computeShortestPath in the all pairs
+   * table, computing the table first if the graph has changed since it was made. The path is
+   * linked together while following next hops, so a lookup only visits the nodes along the path.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return SearchNode for the final end node within the shortest path
+   * @throws NoSuchElementException when no path from start to end is found or when either start or
+   *                                end data do not correspond to a graph node
+   */
+  protected SearchNode computeTablePath(NodeType start, NodeType end) {
+    if (!nodes.containsKey(start) || !nodes.containsKey(end)) {
+      throw new NoSuchElementException("Start or end node not found in graph");
+    }
+    AllPairsTable<NodeType> table = getAllPairsTable();
+
+    Node startNode = nodes.get(start);
+    Node endNode = nodes.get(end);
+    if (table.costOf(startNode.id, endNode.id) == Double.POSITIVE_INFINITY)
+      throw new NoSuchElementException("No path exists between the specified nodes");
+    SearchNode searchNode = new SearchNode(startNode, 0, null);
+    int visited = 1;
+    while (searchNode.node != endNode) {
+      Node next = nodesById.get(table.nextHopOf(searchNode.node.id, endNode.id));
+      searchNode = new SearchNode(next, table.costOf(startNode.id, next.id), searchNode,
+          segmentWeight(searchNode.node, next));
+      visited++;
+    }
+    lastSettledCount = visited;
+    return searchNode;
   }
 
   /**
    * Returns the list of data values from nodes along the shortest path from the node with the
    * provided start value through the node with the provided end value. This list of data values
    * starts with the start value, ends with the end value, and contains intermediary values in the
-   * order they are encountered while traversing this shorteset path. This method uses Dijkstra's
-   * shortest path algorithm to find this solution.
+   * order they are encountered while traversing this shorteset path. This method uses the current
+   * search strategy, which is Dijkstra's shortest path algorithm unless changed.
    *
    * @param start the data item in the starting node for the path
    * @param end   the data item in the destination node for the path
@@ -133,7 +685,7 @@ public class DijkstraGraph<NodeType, EdgeType extends Number> extends BaseGraph<
    */
   public List<NodeType> shortestPathData(NodeType start, NodeType end) {
     // Compute the shortest path
-    SearchNode endNode = computeShortestPath(start, end);
+    SearchNode endNode = computePath(start, end);
 
     // Create a list to store the path
     List<NodeType> path = new LinkedList<>();
@@ -148,19 +700,334 @@ public class DijkstraGraph<NodeType, EdgeType extends Number> extends BaseGraph<
 
   /**
    * Returns the cost of the path (sum over edge weights) of the shortest path freom the node
-   * containing the start data to the node containing the end data. This method uses Dijkstra's
-   * shortest path algorithm to find this solution.
+   * containing the start data to the node containing the end data. This method uses the current
+   * search strategy, which is Dijkstra's shortest path algorithm unless changed.
    *
    * @param start the data item in the starting node for the path
    * @param end   the data item in the destination node for the path
    * @return the cost of the shortest path between these nodes
    */
   public double shortestPathCost(NodeType start, NodeType end) {
+    // a plain search only needs the settled cost of the end node, so no path is built for it
+    if (searchStrategy == SearchStrategy.DIJKSTRA)
+      return computeShortestCost(start, end);
     // Compute the shortest path and return its cost
-    SearchNode endNode = computeShortestPath(start, end);
+    SearchNode endNode = computePath(start, end);
     return endNode.cost;
   }
 
+  /**
+   * This helper method runs the same search as computeShortestPath, but returns only the cost of
+   * the path it finds. It allocates nothing once the calling thread's workspace fits the graph.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return the cost of the shortest path from start to end
+   * @throws NoSuchElementException when no path from start to end is found or when either start or
+   *                                end data do not correspond to a graph node
+   */
+  protected double computeShortestCost(NodeType start, NodeType end) {
+    if (!nodes.containsKey(start) || !nodes.containsKey(end)) {
+      throw new NoSuchElementException("Start or end node not found in graph");
+    }
+    Node startNode = nodes.get(start);
+    Node endNode = nodes.get(end);
+    if (!componentIndex().mayReach(startNode.id, endNode.id))
+      throw new NoSuchElementException("No path exists between the specified nodes");
+    SearchWorkspace workspace = SearchWorkspace.forward(nodesById.size());
+    lastSettledCount = settleFrom(startNode, endNode, workspace);
+    double cost = workspace.costOf(endNode.id);
+    if (cost == Double.POSITIVE_INFINITY)
+      throw new NoSuchElementException("No path exists between the specified nodes");
+    return cost;
+  }
+
+  /**
+   * Returns the shortest path from the node containing the start data to the node containing the
+   * end data, together with the weight of each edge along it and its total cost, from one search
+   * with the current search strategy. Each segment weight is recorded on the path's SearchNodes as
+   * the path is built, so no edges are looked up again to copy the route.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return the nodes, segment weights and cost of this shortest path
+   * @throws NoSuchElementException when no path from start to end is found or when either start or
+   *                                end data do not correspond to a graph node
+   */
+  public ShortestRoute<NodeType> shortestRoute(NodeType start, NodeType end) {
+    return toRoute(computePath(start, end));
+  }
+
+  /**
+   * Returns the same route as shortestRoute(), or null instead of throwing an exception when the
+   * route does not exist. Pairs of nodes in components that no path connects are answered from the
+   * component labels without a search, which makes this the cheaper call when many queries have no
+   * answer.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return the route from start to end, or null when either node is not in the graph or no path
+   *         connects them
+   */
+  public ShortestRoute<NodeType> findShortestRoute(NodeType start, NodeType end) {
+    if (!nodes.containsKey(start) || !nodes.containsKey(end)
+        || !componentIndex().mayReach(nodes.get(start).id, nodes.get(end).id))
+      return null;
+    try {
+      return shortestRoute(start, end);
+    } catch (NoSuchElementException e) {
+      // the labels could not rule the pair out, but the search found no path
+      return null;
+    }
+  }
+
+  /**
+   * Copies the nodes and segment weights along a path of SearchNodes into a ShortestRoute.
+   *
+   * @param endNode SearchNode for the final node of the path
+   * @return the nodes, segment weights and cost of the path
+   */
+  protected ShortestRoute<NodeType> toRoute(SearchNode endNode) {
+    int length = 0;
+    for (SearchNode searchNode = endNode; searchNode != null; searchNode = searchNode.predecessor)
+      length++;
+
+    // fill the arrays from the end of the path back to its start
+    Object[] data = new Object[length];
+    double[] segmentWeights = new double[length - 1];
+    SearchNode searchNode = endNode;
+    for (int i = length - 1; i > 0; i--) {
+      data[i] = searchNode.node.data;
+      segmentWeights[i - 1] = searchNode.segmentWeight;
+      searchNode = searchNode.predecessor;
+    }
+    data[0] = searchNode.node.data;
+    return new ShortestRoute<>(data, segmentWeights, endNode.cost);
+  }
+
+  /**
+   * Returns the shortest path from the node containing the start data to whichever of the target
+   * nodes is cheapest to reach, with a single search that stops as soon as it settles any target.
+   * Targets that are not in the graph are ignored.
+   *
+   * @param start   the data item in the starting node for the path
+   * @param targets the data items in the nodes the path may end at
+   * @return the nodes, segment weights and cost of the path to the nearest target
+   * @throws NoSuchElementException when start does not correspond to a graph node or when no
+   *                                target can be reached from it
+   */
+  public ShortestRoute<NodeType> nearestOf(NodeType start, Collection<NodeType> targets) {
+    if (!nodes.containsKey(start)) {
+      throw new NoSuchElementException("Start node not found in graph");
+    }
+    Node startNode = nodes.get(start);
+    SearchWorkspace workspace = SearchWorkspace.forward(nodesById.size());
+    for (NodeType target : targets)
+      if (nodes.containsKey(target))
+        workspace.mark(nodes.get(target).id);
+
+    IndexedHeap queue = workspace.getQueue();
+    workspace.relax(startNode.id, 0, -1);
+    lastSettledCount = 0;
+    while (!queue.isEmpty()) {
+      Node current = nodesById.get(queue.poll());
+      lastSettledCount++;
+      // the first target to be settled is the nearest one
+      if (workspace.isMarked(current.id))
+        return toRoute(buildSearchPath(startNode, current, workspace));
+      double currentCost = workspace.costOf(current.id);
+      for (Edge edge : current.edgesLeaving)
+        workspace.relax(edge.successor.id, currentCost + edge.data.doubleValue(), current.id);
+    }
+    throw new NoSuchElementException("No path exists from the start node to any target");
+  }
+
+  /**
+   * Labels every node with the facility it can reach most cheaply, partitioning the graph into one
+   * region per facility. A single search runs backward along edgesEntering from all facilities at
+   * once, so every node is settled by the facility nearest to it, and nodes take the label of the
+   * neighbor they were reached through. Facilities that are not in the graph are ignored.
+   *
+   * @param facilities the data items in the facility nodes
+   * @return the data of every node that can reach a facility mapped to the nearest facility's
+   *         data, iterating from the nodes closest to their facility to the farthest
+   */
+  public Map<NodeType, NodeType> nearestFacilities(Collection<NodeType> facilities) {
+    SearchWorkspace workspace = SearchWorkspace.backward(nodesById.size());
+    IndexedHeap queue = workspace.getQueue();
+    for (NodeType facility : facilities)
+      if (nodes.containsKey(facility))
+        workspace.relax(nodes.get(facility).id, 0, -1);
+
+    Map<NodeType, NodeType> nearest = new LinkedHashMap<>();
+    // the facility each settled node is labelled with, indexed by node id
+    List<NodeType> label = new ArrayList<>(Collections.nCopies(nodesById.size(), null));
+    lastSettledCount = 0;
+    while (!queue.isEmpty()) {
+      Node current = nodesById.get(queue.poll());
+      lastSettledCount++;
+      int next = workspace.predecessorOf(current.id);
+      NodeType facility = next == -1 ? current.data : label.get(next);
+      label.set(current.id, facility);
+      nearest.put(current.data, facility);
+      double currentCost = workspace.costOf(current.id);
+      for (Edge edge : current.edgesEntering)
+        workspace.relax(edge.predecessor.id, currentCost + edge.data.doubleValue(), current.id);
+    }
+    return nearest;
+  }
+
+  /**
+   * Computes the shortest paths from the node containing the start data to every node reachable
+   * from it, with a single run of Dijkstra's shortest path algorithm. The returned tree answers
+   * cost queries in constant time and builds paths only when they are asked for, and it does not
+   * change when this graph is changed later.
+   *
+   * @param start the data item in the node the paths start from
+   * @return the tree of shortest paths from that node
+   * @throws NoSuchElementException when start does not correspond to a graph node
+   */
+  public ShortestPathTree<NodeType> shortestPathTree(NodeType start) {
+    if (!nodes.containsKey(start)) {
+      throw new NoSuchElementException("Start node not found in graph");
+    }
+    SearchWorkspace workspace = SearchWorkspace.forward(nodesById.size());
+    lastSettledCount = settleFrom(nodes.get(start), null, workspace);
+
+    // copy the result out of the workspace, which the next search on this thread reuses
+    double[] cost = new double[nodesById.size()];
+    int[] predecessor = new int[nodesById.size()];
+    List<NodeType> data = new ArrayList<>(nodesById.size());
+    for (Node node : nodesById) {
+      cost[node.id] = workspace.costOf(node.id);
+      predecessor[node.id] = workspace.predecessorOf(node.id);
+      data.add(node.data);
+    }
+    return new ShortestPathTree<>(start, data, cost, predecessor);
+  }
+
+  /**
+   * Computes the same costs as shortestPathTree(), with the delta stepping algorithm run on a
+   * snapshot of this graph by the threads of the common ForkJoinPool. This pays off for one-to-all
+   * searches over large graphs, where a single thread would leave the other cores idle.
+   *
+   * @param start the data item in the node the paths start from
+   * @return the tree of shortest paths from that node
+   * @throws NoSuchElementException when start does not correspond to a graph node
+   */
+  public ShortestPathTree<NodeType> parallelShortestPathTree(NodeType start) {
+    if (!nodes.containsKey(start)) {
+      throw new NoSuchElementException("Start node not found in graph");
+    }
+    return new DeltaStepping<>(snapshot()).shortestPathTree(start);
+  }
+
+  /**
+   * Returns up to k loopless paths from the node containing the start data to the node containing
+   * the end data, in order of increasing cost, using Yen's algorithm over a frozen snapshot of this
+   * graph. The graph itself is never modified, so alternatives can be found while other threads
+   * read it.
+   *
+   * @param start the data item in the starting node for the paths
+   * @param end   the data item in the destination node for the paths
+   * @param k     the largest number of paths to return
+   * @return the paths found, cheapest first, with fewer than k when fewer loopless paths exist
+   * @throws NoSuchElementException   when no path from start to end is found or when either start
+   *                                  or end data do not correspond to a graph node
+   * @throws IllegalArgumentException if k is less than 1
+   */
+  public List<ShortestRoute<NodeType>> kShortestPaths(NodeType start, NodeType end, int k) {
+    return new KShortestPaths<>(snapshot()).find(start, end, k);
+  }
+
+  /**
+   * Returns every node whose shortest path from the node containing the start data costs at most
+   * budget. The search settles nodes in order of their cost and stops as soon as the cheapest
+   * queued node costs more than budget, so it only explores the nodes it returns and their
+   * neighbors.
+   *
+   * @param start  the data item in the node the paths start from
+   * @param budget the largest path cost to include
+   * @return the data of each node within budget, other than start, mapped to the cost of reaching
+   *         it, iterating from the cheapest to the most expensive
+   * @throws NoSuchElementException   when start does not correspond to a graph node
+   * @throws IllegalArgumentException if budget is negative
+   */
+  public Map<NodeType, Double> reachableWithin(NodeType start, double budget) {
+    if (budget < 0)
+      throw new IllegalArgumentException("budget cannot be negative");
+    return settleNearest(start, budget, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns the k nodes with the cheapest shortest paths from the node containing the start data.
+   * The search stops as soon as it has settled k nodes other than start, and returns fewer when
+   * fewer nodes can be reached.
+   *
+   * @param start the data item in the node the paths start from
+   * @param k     the number of nodes to return
+   * @return the data of the k nearest nodes, other than start, mapped to the cost of reaching
+   *         each one, iterating from the cheapest to the most expensive
+   * @throws NoSuchElementException   when start does not correspond to a graph node
+   * @throws IllegalArgumentException if k is negative
+   */
+  public Map<NodeType, Double> nearestK(NodeType start, int k) {
+    if (k < 0)
+      throw new IllegalArgumentException("k cannot be negative");
+    return settleNearest(start, Double.POSITIVE_INFINITY, k);
+  }
+
+  // Runs Dijkstra's algorithm from start, collecting settled nodes other than start until the
+  // cheapest queued node costs more than budget or limit nodes have been collected
+  private Map<NodeType, Double> settleNearest(NodeType start, double budget, int limit) {
+    if (!nodes.containsKey(start)) {
+      throw new NoSuchElementException("Start node not found in graph");
+    }
+    Node startNode = nodes.get(start);
+    SearchWorkspace workspace = SearchWorkspace.forward(nodesById.size());
+    IndexedHeap queue = workspace.getQueue();
+    workspace.relax(startNode.id, 0, -1);
+
+    Map<NodeType, Double> reached = new LinkedHashMap<>();
+    lastSettledCount = 0;
+    while (!queue.isEmpty() && queue.peekKey() <= budget && reached.size() < limit) {
+      Node current = nodesById.get(queue.poll());
+      lastSettledCount++;
+      double currentCost = workspace.costOf(current.id);
+      if (current != startNode)
+        reached.put(current.data, currentCost);
+      for (Edge edge : current.edgesLeaving)
+        workspace.relax(edge.successor.id, currentCost + edge.data.doubleValue(), current.id);
+    }
+    return reached;
+  }
+
+  /**
+   * Returns the cost of the shortest path from each of the source nodes to each of the target
+   * nodes. Each source gets its own search over a frozen snapshot of this graph, which stops as
+   * soon as every target is settled, and the searches run in parallel on the common ForkJoinPool.
+   *
+   * @param sources the data items in the starting nodes of the paths
+   * @param targets the data items in the destination nodes of the paths
+   * @return matrix of shortest path costs, one row per source, with positive infinity for pairs
+   *         that have no path between them
+   * @throws NoSuchElementException if any source or target does not correspond to a graph node
+   */
+  public double[][] distanceMatrix(List<NodeType> sources, List<NodeType> targets) {
+    CompactGraph<NodeType> frozen = snapshot();
+    int[] sourceIds = new int[sources.size()];
+    int[] targetIds = new int[targets.size()];
+    for (int i = 0; i < sourceIds.length; i++)
+      sourceIds[i] = frozen.idOf(sources.get(i));
+    for (int j = 0; j < targetIds.length; j++)
+      targetIds[j] = frozen.idOf(targets.get(j));
+
+    double[][] matrix = new double[sourceIds.length][];
+    IntStream.range(0, sourceIds.length).parallel()
+        .forEach(i -> matrix[i] = frozen.computeCostsTo(sourceIds[i], targetIds));
+    return matrix;
+  }
+
   // JUnit test methods
 
   /**
@@ -218,8 +1085,266 @@ public class DijkstraGraph<NodeType, EdgeType extends Number> extends BaseGraph<
     });
   }
 
-  // Utility method to create the graph from the example
-  private DijkstraGraph<String, Integer> createGraphFromExample() {
+  /**
+   * Test method to check that the bidirectional strategy agrees with the forward search on the cost
+   * of every pair of nodes in the example graph, including pairs with no path between them.
+   */
+  @Test
+  public void testBidirectionalMatchesForward() {
+    DijkstraGraph<String, Integer> graph = createGraphFromExample();
+    graph.setSearchStrategy(SearchStrategy.BIDIRECTIONAL);
+    String[] names = {"A", "B", "C", "D", "E", "F", "G", "H"};
+    for (String start : names) {
+      for (String end : names) {
+        try {
+          double expectedCost = graph.computeShortestPath(start, end).cost;
+          Assertions.assertEquals(expectedCost, graph.shortestPathCost(start, end));
+          List<String> path = graph.shortestPathData(start, end);
+          Assertions.assertEquals(start, path.get(0));
+          Assertions.assertEquals(end, path.get(path.size() - 1));
+        } catch (NoSuchElementException e) {
+          Assertions.assertThrows(NoSuchElementException.class,
+              () -> graph.shortestPathCost(start, end));
+        }
+      }
+    }
+    Assertions.assertEquals(Arrays.asList("A", "C", "D", "F", "G"),
+        graph.shortestPathData("A", "G"));
+  }
+
+  /**
+   * Test method to check that the ALT strategy returns the lecture example's paths, settles no more
+   * nodes than Dijkstra's algorithm, and picks up changes made to the graph after its landmarks
+   * were chosen.
+   */
+  @Test
+  public void testLandmarkStrategy() {
+    DijkstraGraph<String, Integer> graph = createGraphFromExample();
+    graph.shortestPathCost("A", "H");
+    int dijkstraSettled = graph.getLastSettledCount();
+
+    graph.setSearchStrategy(SearchStrategy.ALT);
+    graph.setLandmarks(2, LandmarkIndex.Selection.FARTHEST);
+    Assertions.assertEquals(14, graph.shortestPathCost("A", "E"));
+    Assertions.assertEquals(Arrays.asList("A", "C", "D", "F", "G"),
+        graph.shortestPathData("A", "G"));
+    graph.shortestPathCost("A", "H");
+    Assertions.assertTrue(graph.getLastSettledCount() <= dijkstraSettled);
+
+    graph.insertEdge("A", "E", 1);
+    Assertions.assertEquals(1, graph.shortestPathCost("A", "E"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathCost("E", "C"));
+  }
+
+  /**
+   * Test method to check that the contraction hierarchy strategy returns the lecture example's
+   * paths, that concurrent first queries share one hierarchy, and that it is rebuilt after the
+   * graph changes.
+   */
+  @Test
+  public void testHierarchyStrategy() throws InterruptedException {
+    DijkstraGraph<String, Integer> graph = createGraphFromExample();
+    graph.setSearchStrategy(SearchStrategy.CONTRACTION_HIERARCHY);
+    // threads that all need the hierarchy at once get the one hierarchy a single thread built
+    List<ContractionHierarchy<String>> built = Collections.synchronizedList(new ArrayList<>());
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> built.add(graph.getContractionHierarchy()));
+      threads[i].start();
+    }
+    for (Thread thread : threads)
+      thread.join();
+    ContractionHierarchy<String> hierarchy = graph.getContractionHierarchy();
+    Assertions.assertEquals(Collections.nCopies(4, hierarchy), built);
+    Assertions.assertEquals(14, graph.shortestPathCost("A", "E"));
+    Assertions.assertSame(hierarchy, graph.getContractionHierarchy());
+    Assertions.assertEquals(Arrays.asList("A", "C", "D", "F", "G"),
+        graph.shortestPathData("A", "G"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathCost("E", "C"));
+
+    graph.removeEdge("D", "F");
+    Assertions.assertEquals(Arrays.asList("A", "B", "E", "F", "G"),
+        graph.shortestPathData("A", "G"));
+    Assertions.assertNotSame(hierarchy, graph.getContractionHierarchy());
+  }
+
+  /**
+   * Test method to check that the all pairs strategy returns the lecture example's paths with
+   * their segment weights, visiting only the nodes along each path.
+   */
+  @Test
+  public void testTableStrategy() {
+    DijkstraGraph<String, Integer> graph = createGraphFromExample();
+    graph.setSearchStrategy(SearchStrategy.ALL_PAIRS);
+    ShortestRoute<String> route = graph.shortestRoute("A", "G");
+    Assertions.assertEquals(Arrays.asList("A", "C", "D", "F", "G"), route.getPath());
+    Assertions.assertEquals(Arrays.asList(2.0, 5.0, 0.0, 2.0), route.getSegmentWeights());
+    Assertions.assertEquals(9, route.getCost());
+    Assertions.assertEquals(5, graph.getLastSettledCount());
+    Assertions.assertEquals(0, graph.shortestPathCost("H", "H"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathCost("E", "C"));
+  }
+
+  /**
+   * Test method to check that each entry of a distance matrix matches the cost of a single query,
+   * with infinite entries for pairs that have no path between them.
+   */
+  @Test
+  public void testDistanceMatrix() {
+    DijkstraGraph<String, Integer> graph = createGraphFromExample();
+    List<String> sources = Arrays.asList("A", "E", "C");
+    List<String> targets = Arrays.asList("G", "C", "A", "G");
+    double[][] matrix = graph.distanceMatrix(sources, targets);
+
+    Assertions.assertEquals(3, matrix.length);
+    for (int i = 0; i < sources.size(); i++) {
+      Assertions.assertEquals(4, matrix[i].length);
+      for (int j = 0; j < targets.size(); j++) {
+        try {
+          Assertions.assertEquals(graph.shortestPathCost(sources.get(i), targets.get(j)),
+              matrix[i][j]);
+        } catch (NoSuchElementException e) {
+          Assertions.assertEquals(Double.POSITIVE_INFINITY, matrix[i][j]);
+        }
+      }
+    }
+    Assertions.assertThrows(NoSuchElementException.class,
+        () -> graph.distanceMatrix(Arrays.asList("A"), Arrays.asList("Z")));
+  }
+
+  /**
+   * Test method to check that range and nearest queries return the right nodes in order of their
+   * cost, and only settle the nodes they need.
+   */
+  @Test
+  public void testReachableWithinAndNearestK() {
+    DijkstraGraph<String, Integer> graph = createGraphFromExample();
+    Map<String, Double> within = graph.reachableWithin("A", 7);
+    Assertions.assertEquals(Arrays.asList("C", "B", "D", "F"), new ArrayList<>(within.keySet()));
+    Assertions.assertEquals(Arrays.asList(2.0, 4.0, 7.0, 7.0), new ArrayList<>(within.values()));
+    Assertions.assertTrue(graph.getLastSettledCount() < 8);
+    for (Map.Entry<String, Double> entry : within.entrySet())
+      Assertions.assertEquals(graph.shortestPathCost("A", entry.getKey()), entry.getValue());
+
+    Map<String, Double> nearest = graph.nearestK("A", 2);
+    Assertions.assertEquals(Arrays.asList("C", "B"), new ArrayList<>(nearest.keySet()));
+    Assertions.assertEquals(3, graph.getLastSettledCount());
+    Assertions.assertEquals(Arrays.asList("F", "G", "H"),
+        new ArrayList<>(graph.nearestK("E", 10).keySet()));
+    Assertions.assertTrue(graph.reachableWithin("H", 100).isEmpty());
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.nearestK("Z", 1));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> graph.reachableWithin("A", -1));
+  }
+
+  /**
+   * Test method to check that a route holds the same path and cost as separate queries, with the
+   * weight of each edge along it, for every search strategy.
+   */
+  @Test
+  public void testShortestRoute() {
+    DijkstraGraph<String, Integer> graph = createGraphFromExample();
+    for (SearchStrategy strategy : SearchStrategy.values()) {
+      graph.setSearchStrategy(strategy);
+      ShortestRoute<String> route = graph.shortestRoute("A", "G");
+      Assertions.assertEquals(Arrays.asList("A", "C", "D", "F", "G"), route.getPath());
+      Assertions.assertEquals(Arrays.asList(2.0, 5.0, 0.0, 2.0), route.getSegmentWeights());
+      Assertions.assertEquals(9, route.getCost());
+    }
+    ShortestRoute<String> single = graph.shortestRoute("B", "B");
+    Assertions.assertEquals(Arrays.asList("B"), single.getPath());
+    Assertions.assertTrue(single.getSegmentWeights().isEmpty());
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestRoute("E", "C"));
+  }
+
+  /**
+   * Test method to check that edges of a hub node with hundreds of neighbors can be found, updated
+   * and removed, both by themselves and together with the hub or one of its neighbors.
+   */
+  @Test
+  public void testHubEdges() {
+    DijkstraGraph<String, Integer> graph = new DijkstraGraph<>(new PlaceholderMap<>());
+    graph.insertNode("hub");
+    for (int i = 0; i < 500; i++) {
+      graph.insertNode("n" + i);
+      graph.insertEdge("hub", "n" + i, i);
+      graph.insertEdge("n" + i, "hub", i);
+    }
+    Assertions.assertEquals(1000, graph.getEdgeCount());
+    Assertions.assertEquals(250, graph.getEdge("hub", "n250"));
+    Assertions.assertTrue(graph.insertEdge("hub", "n250", 7));
+    Assertions.assertEquals(7, graph.getEdge("hub", "n250"));
+    Assertions.assertEquals(1000, graph.getEdgeCount());
+
+    // removing edges moves others within the hub's lists, which must still be found afterward
+    for (int i = 0; i < 500; i += 2)
+      Assertions.assertTrue(graph.removeEdge("hub", "n" + i));
+    Assertions.assertFalse(graph.removeEdge("hub", "n0"));
+    for (int i = 0; i < 500; i++) {
+      Assertions.assertEquals(i % 2 == 1, graph.containsEdge("hub", "n" + i));
+      Assertions.assertTrue(graph.containsEdge("n" + i, "hub"));
+    }
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.getEdge("hub", "n10"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> graph.getEdge("hub", "none"));
+    Assertions.assertEquals(4, graph.shortestPathCost("n1", "n3"));
+
+    Assertions.assertTrue(graph.removeNode("n3"));
+    Assertions.assertFalse(graph.containsEdge("hub", "n3"));
+    Assertions.assertEquals(6, graph.shortestPathCost("n1", "n5"));
+    Assertions.assertTrue(graph.removeNode("hub"));
+    for (int i = 0; i < 500; i++)
+      if (i != 3)
+        Assertions.assertTrue(graph.nodes.get("n" + i).edgesLeaving.isEmpty());
+  }
+
+  /**
+   * Test method to check that the parallel tree reaches the same nodes at the same costs as the
+   * sequential one, from every start node.
+   */
+  @Test
+  public void testParallelShortestPathTree() {
+    DijkstraGraph<String, Integer> graph = createGraphFromExample();
+    for (String start : Arrays.asList("A", "B", "C", "D", "E", "F", "G", "H")) {
+      ShortestPathTree<String> expected = graph.shortestPathTree(start);
+      ShortestPathTree<String> tree = graph.parallelShortestPathTree(start);
+      Assertions.assertEquals(expected.getReachableCount(), tree.getReachableCount());
+      for (String end : Arrays.asList("A", "B", "C", "D", "E", "F", "G", "H"))
+        if (expected.reaches(end))
+          Assertions.assertEquals(expected.costTo(end), tree.costTo(end));
+    }
+    Assertions.assertThrows(NoSuchElementException.class,
+        () -> graph.parallelShortestPathTree("Z"));
+  }
+
+  /**
+   * Test method to check that the nearest of several targets is found with its path, and that
+   * every node is labelled with the facility it reaches most cheaply.
+   */
+  @Test
+  public void testNearestOfAndFacilities() {
+    DijkstraGraph<String, Integer> graph = createGraphFromExample();
+    ShortestRoute<String> route = graph.nearestOf("A", Arrays.asList("E", "G", "H", "Z"));
+    Assertions.assertEquals(Arrays.asList("A", "C", "D", "F", "G"), route.getPath());
+    Assertions.assertEquals(9, route.getCost());
+    Assertions.assertEquals(0, graph.nearestOf("A", Arrays.asList("G", "A")).getCost());
+    Assertions.assertThrows(NoSuchElementException.class,
+        () -> graph.nearestOf("H", Arrays.asList("A", "G")));
+    Assertions.assertThrows(NoSuchElementException.class,
+        () -> graph.nearestOf("Z", Arrays.asList("A")));
+
+    Map<String, String> nearest = graph.nearestFacilities(Arrays.asList("B", "G"));
+    Assertions.assertEquals("B", nearest.get("A"));
+    Assertions.assertEquals("B", nearest.get("B"));
+    Assertions.assertEquals("B", nearest.get("C"));
+    Assertions.assertEquals("B", nearest.get("D"));
+    Assertions.assertEquals("G", nearest.get("E"));
+    Assertions.assertEquals("G", nearest.get("F"));
+    Assertions.assertEquals("G", nearest.get("G"));
+    Assertions.assertFalse(nearest.containsKey("H"));
+    Assertions.assertEquals(8, graph.getLastSettledCount() + 1);
+  }
+
+  // Utility method to create the graph from the example, shared by the tests of other graph classes
+  static DijkstraGraph<String, Integer> createGraphFromExample() {
     DijkstraGraph<String, Integer> graph = new DijkstraGraph<>(new PlaceholderMap<>());
     // Add nodes
     graph.insertNode("A");
@@ -0,0 +1,360 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * This DynamicShortestPathTree class keeps the shortest paths from one source node of a
+ * DijkstraGraph up to date while the graph's edges change. It is created by
+ * DijkstraGraph.maintainShortestPathTree(), after which the graph reports every inserted, updated
+ * and removed edge to it, and it repairs only the part of the tree the change affects, in the
+ * style of Ramalingam and Reps:
+ *
+ * - When an edge gets cheaper (or is inserted), its successor is relaxed through it, and only the
+ * nodes whose cost drops as a result are settled again.
+ *
+ * - When an edge that the tree uses gets more expensive (or is removed), the subtree below it loses
+ * its costs. Each node in that subtree is seeded with its cheapest edge from outside the subtree,
+ * and only the subtree is settled again. Edges the tree does not use can get more expensive
+ * without changing anything.
+ *
+ * Changes the graph does not report edge by edge, such as removing a node, leave the tree out of
+ * date, and the next query then recomputes it from scratch.
+ *
+ * @param <NodeType> is the data type stored at each graph node
+ * @param <EdgeType> is the data type stored at each graph edge as a weight
+ */
+public class DynamicShortestPathTree<NodeType, EdgeType extends Number> {
+
+  protected final DijkstraGraph<NodeType, EdgeType> graph;
+  protected final NodeType source;
+  // the version of the graph that the costs and predecessors below are correct for
+  protected long version;
+  // cost and predecessor id of each node id, infinite and -1 when it is not reached
+  protected double[] cost = new double[0];
+  protected int[] predecessor = new int[0];
+  // queue and subtree flags used while repairing, kept between repairs to avoid allocating them
+  private final IndexedHeap queue = new IndexedHeap();
+  private boolean[] inSubtree = new boolean[0];
+  private int[] subtree = new int[0];
+  // the number of nodes whose cost was re-examined by the most recent repair
+  protected int lastRepairCount = 0;
+
+  /**
+   * Constructor for DynamicShortestPathTree, normally called through
+   * DijkstraGraph.maintainShortestPathTree().
+   *
+   * @param graph  the graph whose shortest paths to maintain
+   * @param source the data item in the node the paths start from
+   */
+  protected DynamicShortestPathTree(DijkstraGraph<NodeType, EdgeType> graph, NodeType source) {
+    this.graph = graph;
+    this.source = source;
+    recompute();
+  }
+
+  /**
+   * Returns the data item in the node every path starts from.
+   *
+   * @return the source of this tree
+   */
+  public NodeType getSource() {
+    return source;
+  }
+
+  /**
+   * Returns the number of nodes whose cost the most recent edge change made this tree re-examine,
+   * which is the part of the graph the repair had to touch.
+   *
+   * @return the number of nodes re-examined by the last repair
+   */
+  public int getLastRepairCount() {
+    return lastRepairCount;
+  }
+
+  /**
+   * Checks whether a path from the source to the node containing end exists.
+   *
+   * @param end the data item in the destination node
+   * @return true if end can be reached from the source, and false otherwise
+   */
+  public boolean reaches(NodeType end) {
+    ensureCurrent();
+    return graph.containsNode(end)
+        && cost[graph.nodes.get(end).id] != Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Returns the cost of the shortest path from the source to the node containing end.
+   *
+   * @param end the data item in the destination node for the path
+   * @return the cost of the shortest path to that node
+   * @throws NoSuchElementException when end cannot be reached from the source
+   */
+  public double costTo(NodeType end) {
+    if (!reaches(end))
+      throw new NoSuchElementException("No path exists between the specified nodes");
+    return cost[graph.nodes.get(end).id];
+  }
+
+  /**
+   * Returns the list of data values from nodes along the shortest path from the source through the
+   * node containing end.
+   *
+   * @param end the data item in the destination node for the path
+   * @return list of data item from node along this shortest path
+   * @throws NoSuchElementException when end cannot be reached from the source
+   */
+  public List<NodeType> pathTo(NodeType end) {
+    if (!reaches(end))
+      throw new NoSuchElementException("No path exists between the specified nodes");
+    List<NodeType> path = new LinkedList<>();
+    for (int id = graph.nodes.get(end).id; id != -1; id = predecessor[id])
+      path.add(0, graph.nodesById.get(id).data);
+    return path;
+  }
+
+  // Recomputes every cost from scratch when the graph changed in a way that was not reported
+  private void ensureCurrent() {
+    if (version != graph.getVersion())
+      recompute();
+  }
+
+  /**
+   * Recomputes every cost and predecessor with a full run of Dijkstra's algorithm.
+   */
+  protected void recompute() {
+    int nodeCount = graph.nodesById.size();
+    cost = new double[nodeCount];
+    predecessor = new int[nodeCount];
+    Arrays.fill(cost, Double.POSITIVE_INFINITY);
+    Arrays.fill(predecessor, -1);
+    if (graph.containsNode(source)) {
+      SearchWorkspace workspace = SearchWorkspace.forward(nodeCount);
+      lastRepairCount = graph.settleFrom(graph.nodes.get(source), null, workspace);
+      for (int id = 0; id < nodeCount; id++) {
+        cost[id] = workspace.costOf(id);
+        if (cost[id] != Double.POSITIVE_INFINITY)
+          predecessor[id] = workspace.predecessorOf(id);
+      }
+    }
+    version = graph.getVersion();
+  }
+
+  /**
+   * Makes room for a node that was just inserted, which no edge reaches yet.
+   *
+   * @param graphVersion the version of the graph after the insertion
+   */
+  protected void nodeInserted(long graphVersion) {
+    if (version != graphVersion - 1)
+      return; // already out of date, and recomputed on the next query
+    // the arrays grow geometrically, and only the first nodesById.size() entries are in use
+    int id = graph.nodesById.size() - 1;
+    if (id == cost.length) {
+      cost = Arrays.copyOf(cost, Math.max(8, cost.length * 2));
+      predecessor = Arrays.copyOf(predecessor, cost.length);
+    }
+    cost[id] = Double.POSITIVE_INFINITY;
+    predecessor[id] = -1;
+    version = graphVersion;
+  }
+
+  /**
+   * Repairs the tree after the weight of the edge from predId to succId changed.
+   *
+   * @param predId       the id of the node the edge leaves
+   * @param succId       the id of the node the edge enters
+   * @param oldWeight    the weight before the change, infinite when the edge was just inserted
+   * @param newWeight    the weight after the change, infinite when the edge was just removed
+   * @param graphVersion the version of the graph after the change
+   */
+  protected void edgeChanged(int predId, int succId, double oldWeight, double newWeight,
+      long graphVersion) {
+    if (version != graphVersion - 1)
+      return; // already out of date, and recomputed on the next query
+    version = graphVersion;
+    lastRepairCount = 0;
+    if (newWeight < oldWeight)
+      repairDecrease(predId, succId, newWeight);
+    else if (newWeight > oldWeight && predecessor[succId] == predId)
+      repairIncrease(succId);
+  }
+
+  // Relaxes succId through the cheaper edge, then settles only the nodes whose cost drops
+  private void repairDecrease(int predId, int succId, double newWeight) {
+    double newCost = cost[predId] + newWeight;
+    if (newCost >= cost[succId])
+      return;
+    cost[succId] = newCost;
+    predecessor[succId] = predId;
+    queue.clear();
+    queue.insertOrDecrease(succId, newCost);
+    settleQueue();
+  }
+
+  // Clears the costs of the subtree below rootId, seeds each of its nodes with its cheapest edge
+  // from outside the subtree, and settles the subtree again
+  private void repairIncrease(int rootId) {
+    if (inSubtree.length < cost.length) {
+      inSubtree = new boolean[cost.length];
+      subtree = new int[cost.length];
+    }
+    // collect the subtree by following tree edges, which are the edges matching a predecessor
+    int size = 0;
+    subtree[size++] = rootId;
+    inSubtree[rootId] = true;
+    for (int i = 0; i < size; i++) {
+      for (BaseGraph<NodeType, EdgeType>.Edge edge : graph.nodesById.get(subtree[i]).edgesLeaving) {
+        int child = edge.successor.id;
+        if (!inSubtree[child] && predecessor[child] == subtree[i]) {
+          inSubtree[child] = true;
+          subtree[size++] = child;
+        }
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      cost[subtree[i]] = Double.POSITIVE_INFINITY;
+      predecessor[subtree[i]] = -1;
+    }
+
+    queue.clear();
+    for (int i = 0; i < size; i++) {
+      int id = subtree[i];
+      for (BaseGraph<NodeType, EdgeType>.Edge edge : graph.nodesById.get(id).edgesEntering) {
+        int from = edge.predecessor.id;
+        double newCost = cost[from] + edge.data.doubleValue();
+        if (!inSubtree[from] && newCost < cost[id]) {
+          cost[id] = newCost;
+          predecessor[id] = from;
+        }
+      }
+      if (cost[id] != Double.POSITIVE_INFINITY)
+        queue.insertOrDecrease(id, cost[id]);
+    }
+    for (int i = 0; i < size; i++)
+      inSubtree[subtree[i]] = false;
+    lastRepairCount = size;
+    settleQueue();
+  }
+
+  // Dijkstra's algorithm from the queued nodes, lowering the cost of any node it improves
+  private void settleQueue() {
+    while (!queue.isEmpty()) {
+      int id = queue.poll();
+      lastRepairCount++;
+      for (BaseGraph<NodeType, EdgeType>.Edge edge : graph.nodesById.get(id).edgesLeaving) {
+        int next = edge.successor.id;
+        double newCost = cost[id] + edge.data.doubleValue();
+        if (newCost < cost[next]) {
+          cost[next] = newCost;
+          predecessor[next] = id;
+          queue.insertOrDecrease(next, newCost);
+        }
+      }
+    }
+  }
+
+  // JUnit test methods
+
+  /**
+   * Checks that closing and reopening edges of the lecture example repairs the tree to the same
+   * paths a fresh search finds.
+   */
+  @Test
+  public void testRepairsAfterClosureAndReopening() {
+    DijkstraGraph<String, Integer> graph = DijkstraGraph.createGraphFromExample();
+    DynamicShortestPathTree<String, Integer> tree = graph.maintainShortestPathTree("A");
+    Assertions.assertEquals(9, tree.costTo("G"));
+
+    // closing D->F moves G onto the path through B and E
+    graph.removeEdge("D", "F");
+    Assertions.assertEquals(20, tree.costTo("G"));
+    Assertions.assertEquals(Arrays.asList("A", "B", "E", "F", "G"), tree.pathTo("G"));
+    // a cheaper A->B changes nothing below C
+    graph.insertEdge("A", "B", 1);
+    Assertions.assertEquals(2, tree.costTo("C"));
+    Assertions.assertEquals(17, tree.costTo("G"));
+    // reopening D->F brings the original path back
+    graph.insertEdge("D", "F", 0);
+    Assertions.assertEquals(9, tree.costTo("G"));
+    Assertions.assertEquals(Arrays.asList("A", "C", "D", "F", "G"), tree.pathTo("G"));
+    // a more expensive edge off the tree changes nothing and touches nothing
+    graph.insertEdge("D", "B", 50);
+    Assertions.assertEquals(0, tree.getLastRepairCount());
+    Assertions.assertEquals(13, tree.costTo("H"));
+
+    graph.removeEdge("A", "C");
+    graph.removeEdge("A", "B");
+    Assertions.assertFalse(tree.reaches("H"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> tree.costTo("H"));
+    graph.stopMaintaining(tree);
+  }
+
+  /**
+   * Checks the maintained tree against a fresh search after each of many random edge changes on a
+   * grid, including node insertions and a node removal.
+   */
+  @Test
+  public void testMatchesRecomputationAfterRandomChanges() {
+    DijkstraGraph<Integer, Integer> graph = new DijkstraGraph<>(new HashtableMap<>());
+    int side = 8;
+    for (int i = 0; i < side * side; i++)
+      graph.insertNode(i);
+    Random random = new Random(14);
+    for (int i = 0; i < side * side; i++) {
+      if (i % side < side - 1) {
+        graph.insertEdge(i, i + 1, random.nextInt(5));
+        graph.insertEdge(i + 1, i, random.nextInt(5));
+      }
+      if (i + side < side * side) {
+        graph.insertEdge(i, i + side, random.nextInt(5));
+        graph.insertEdge(i + side, i, random.nextInt(5));
+      }
+    }
+    DynamicShortestPathTree<Integer, Integer> tree = graph.maintainShortestPathTree(0);
+    graph.insertNode(-1);
+    for (int step = 0; step < 300; step++) {
+      int from = random.nextInt(side * side);
+      int to = random.nextInt(side * side);
+      if (random.nextInt(3) == 0)
+        graph.removeEdge(from, to);
+      else
+        graph.insertEdge(from, to, random.nextInt(20));
+      if (step == 150)
+        graph.removeNode(side * side - 1);
+
+      ShortestPathTree<Integer> fresh = graph.shortestPathTree(0);
+      for (int node = 0; node < side * side - 1; node++) {
+        Assertions.assertEquals(fresh.reaches(node), tree.reaches(node));
+        if (fresh.reaches(node))
+          Assertions.assertEquals(fresh.costTo(node), tree.costTo(node));
+      }
+    }
+  }
+
+  /**
+   * Checks that inserting many nodes one at a time grows the tree's arrays geometrically, and that
+   * the tree keeps following the edges that connect the new nodes.
+   */
+  @Test
+  public void testBulkNodeInsertion() {
+    DijkstraGraph<Integer, Integer> graph = new DijkstraGraph<>(new HashtableMap<>());
+    graph.insertNode(0);
+    DynamicShortestPathTree<Integer, Integer> tree = graph.maintainShortestPathTree(0);
+    for (int i = 1; i < 1000; i++) {
+      graph.insertNode(i);
+      graph.insertEdge(i - 1, i, 2);
+    }
+    Assertions.assertEquals(graph.getVersion(), tree.version, "every change should be repaired");
+    Assertions.assertTrue(tree.cost.length < 2 * 1000);
+    Assertions.assertEquals(1998, tree.costTo(999));
+    Assertions.assertEquals(Arrays.asList(0, 1, 2), tree.pathTo(2));
+    graph.insertNode(1000);
+    Assertions.assertFalse(tree.reaches(1000));
+  }
+}
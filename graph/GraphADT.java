@@ -124,5 +124,33 @@ public interface GraphADT<NodeType, EdgeType extends Number> {
    */
   public double shortestPathCost(NodeType start, NodeType end);
 
+  /**
+   * Returns the shortest path from the node containing the start data to
+   * the node containing the end data, together with the weight of each edge
+   * along it and its total cost, all found by a single search.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return the nodes, segment weights and cost of this shortest path
+   * @throws NoSuchElementException when no path from start to end is found
+   *                                or when either start or end data do not
+   *                                correspond to a graph node
+   */
+  public ShortestRoute<NodeType> shortestRoute(NodeType start, NodeType end);
+
+  /**
+   * Returns the cost of the shortest path from each of the source nodes to
+   * each of the target nodes. Entry [i][j] of the result is the cost from
+   * sources.get(i) to targets.get(j), or positive infinity when there is no
+   * path between them.
+   *
+   * @param sources the data items in the starting nodes of the paths
+   * @param targets the data items in the destination nodes of the paths
+   * @return matrix of shortest path costs, one row per source
+   * @throws NoSuchElementException if any source or target does not
+   *                                correspond to a graph node
+   */
+  public double[][] distanceMatrix(List<NodeType> sources, List<NodeType> targets);
+
 }
 
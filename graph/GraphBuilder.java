@@ -0,0 +1,210 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * This GraphBuilder class collects the nodes and edges of a graph and then builds the whole
+ * DijkstraGraph at once, which is much faster than inserting them one at a time when loading a
+ * large graph. Each node's data is interned the first time it is added, so later edges naming the
+ * same node reuse the first copy of its data, and each edge is recorded by the ids of its nodes.
+ * An edge added again between the same two nodes replaces the weight of the earlier one, as
+ * insertEdge() does. build() then sizes the graph's node map, an OpenHashtableMap, and every
+ * node's edge lists for their final contents, and links each edge into place without looking
+ * anything up.
+ *
+ * @param <NodeType> is the data type stored at each graph node
+ * @param <EdgeType> is the data type stored at each graph edge as a weight
+ */
+public class GraphBuilder<NodeType, EdgeType extends Number> {
+
+  // the data of each node, indexed by its id, and the id of each node's data
+  private final List<NodeType> data;
+  private final ObjectIntMap<NodeType> ids;
+  // the predecessor id, successor id and weight of each edge
+  private int[] preds = new int[16];
+  private int[] succs = new int[16];
+  private final List<EdgeType> weights = new ArrayList<>();
+  // the position of each edge, keyed by its predecessor and successor ids packed into a long
+  private final Map<Long, Integer> edgePositions = new HashMap<>();
+
+  /**
+   * Constructor for an empty builder.
+   */
+  public GraphBuilder() {
+    this(16);
+  }
+
+  /**
+   * Constructor for an empty builder that expects about expectedNodes nodes.
+   *
+   * @param expectedNodes the number of nodes to make room for
+   */
+  public GraphBuilder(int expectedNodes) {
+    data = new ArrayList<>(expectedNodes);
+    ids = new ObjectIntMap<>(expectedNodes * 5 / 4 + 1);
+  }
+
+  /**
+   * Adds a node, unless a node with equal data was already added.
+   *
+   * @param node the data item of the node
+   * @return the id of the node holding that data in the built graph
+   * @throws NullPointerException if node is null
+   */
+  public int addNode(NodeType node) {
+    if (node == null)
+      throw new NullPointerException("null nodes not allowed");
+    int id = ids.getOrDefault(node, -1);
+    if (id == -1) {
+      id = data.size();
+      ids.put(node, id);
+      data.add(node);
+    }
+    return id;
+  }
+
+  /**
+   * Adds a directed edge, along with either of its nodes that was not added yet. When an edge
+   * from pred to succ was already added, its weight is replaced instead.
+   *
+   * @param pred   the data item in the edge's predecessor node
+   * @param succ   the data item in the edge's successor node
+   * @param weight the non-negative weight of the edge
+   * @return this builder
+   * @throws NullPointerException if pred or succ is null
+   */
+  public GraphBuilder<NodeType, EdgeType> addEdge(NodeType pred, NodeType succ, EdgeType weight) {
+    int predId = addNode(pred);
+    int succId = addNode(succ);
+    Integer position = edgePositions.putIfAbsent(((long) predId << 32) | succId, weights.size());
+    if (position != null) {
+      weights.set(position, weight);
+      return this;
+    }
+    if (weights.size() == preds.length) {
+      preds = Arrays.copyOf(preds, preds.length * 2);
+      succs = Arrays.copyOf(succs, succs.length * 2);
+    }
+    preds[weights.size()] = predId;
+    succs[weights.size()] = succId;
+    weights.add(weight);
+    return this;
+  }
+
+  /**
+   * Adds an edge in each direction between two nodes, with the same weight.
+   *
+   * @param first  the data item in one of the nodes
+   * @param second the data item in the other node
+   * @param weight the non-negative weight of both edges
+   * @return this builder
+   * @throws NullPointerException if first or second is null
+   */
+  public GraphBuilder<NodeType, EdgeType> addUndirectedEdge(NodeType first, NodeType second,
+      EdgeType weight) {
+    return addEdge(first, second, weight).addEdge(second, first, weight);
+  }
+
+  /**
+   * Returns the number of distinct nodes added so far.
+   *
+   * @return the number of nodes the built graph will have
+   */
+  public int getNodeCount() {
+    return data.size();
+  }
+
+  /**
+   * Returns the number of distinct edges added so far.
+   *
+   * @return the number of edges the built graph will have
+   */
+  public int getEdgeCount() {
+    return weights.size();
+  }
+
+  /**
+   * Builds a new graph holding every node and edge added to this builder. The builder can keep
+   * collecting nodes and edges afterward, which later builds include without affecting this graph.
+   *
+   * @return a new graph with the nodes and edges added so far
+   */
+  public DijkstraGraph<NodeType, EdgeType> build() {
+    // size the node map so that it never has to grow while the nodes are put into it
+    DijkstraGraph<NodeType, EdgeType> graph =
+        new DijkstraGraph<>(new OpenHashtableMap<>(data.size() * 5 / 4 + 1));
+    int edgeCount = weights.size();
+    graph.load(data, Arrays.copyOf(preds, edgeCount), Arrays.copyOf(succs, edgeCount), weights);
+    return graph;
+  }
+
+  // JUnit test methods
+
+  /**
+   * Checks that a built graph has the same nodes, edges and weights as the same edges inserted one
+   * at a time, including edges added twice and a node without edges, and that its edges can still
+   * be changed afterward.
+   */
+  @Test
+  public void testMatchesInsertedGraph() {
+    Random random = new Random(4);
+    GraphBuilder<Integer, Double> builder = new GraphBuilder<>(100);
+    DijkstraGraph<Integer, Double> inserted = new DijkstraGraph<>(new HashtableMap<>());
+    builder.addNode(100);
+    inserted.insertNode(100);
+    for (int i = 0; i < 2000; i++) {
+      int pred = random.nextInt(100);
+      int succ = random.nextInt(100);
+      double weight = random.nextInt(50);
+      builder.addEdge(pred, succ, weight);
+      inserted.insertNode(pred);
+      inserted.insertNode(succ);
+      inserted.insertEdge(pred, succ, weight);
+    }
+    DijkstraGraph<Integer, Double> built = builder.build();
+    Assertions.assertEquals(inserted.getNodeCount(), built.getNodeCount());
+    Assertions.assertEquals(inserted.getEdgeCount(), built.getEdgeCount());
+    Assertions.assertEquals(builder.getEdgeCount(), built.getEdgeCount());
+    for (int pred = 0; pred <= 100; pred++) {
+      for (int succ = 0; succ <= 100; succ++) {
+        Assertions.assertEquals(inserted.containsEdge(pred, succ), built.containsEdge(pred, succ));
+        if (inserted.containsEdge(pred, succ))
+          Assertions.assertEquals(inserted.getEdge(pred, succ), built.getEdge(pred, succ));
+      }
+    }
+    Assertions.assertEquals(inserted.shortestPathCost(3, 7), built.shortestPathCost(3, 7));
+
+    Assertions.assertTrue(built.insertEdge(100, 3, 1.0));
+    Assertions.assertTrue(built.removeEdge(100, 3));
+    Assertions.assertTrue(built.removeNode(3));
+    Assertions.assertFalse(built.containsNode(3));
+    Assertions.assertThrows(IllegalStateException.class,
+        () -> built.load(Arrays.asList(1), new int[0], new int[0], new ArrayList<>()));
+  }
+
+  /**
+   * Checks that equal node data is interned to the instance that was added first, and that
+   * undirected edges are added in both directions.
+   */
+  @Test
+  public void testInternsNodeData() {
+    GraphBuilder<String, Double> builder = new GraphBuilder<>();
+    String first = new String("Memorial Union");
+    builder.addUndirectedEdge(first, "Science Hall", 105.8);
+    builder.addUndirectedEdge(new String("Memorial Union"), "Brat Stand", 156.5);
+    Assertions.assertEquals(3, builder.getNodeCount());
+    Assertions.assertEquals(4, builder.getEdgeCount());
+
+    DijkstraGraph<String, Double> graph = builder.build();
+    Assertions.assertSame(first, graph.nodes.get("Memorial Union").data);
+    Assertions.assertEquals(105.8, graph.getEdge("Science Hall", "Memorial Union"));
+    Assertions.assertEquals(262.3, graph.shortestPathCost("Science Hall", "Brat Stand"), 1e-9);
+    Assertions.assertThrows(NullPointerException.class, () -> builder.addNode(null));
+  }
+}
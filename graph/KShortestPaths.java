@@ -0,0 +1,278 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * This KShortestPaths class finds the k cheapest loopless paths between two nodes of a CompactGraph
+ * with Yen's algorithm. After the shortest path is found, each further path is found by deviating
+ * from the previous one: for every node along it, a spur search runs from that node to the
+ * destination while avoiding the nodes before it and the edges earlier paths already took from
+ * the same prefix. The spur searches of one round are independent, so they run in parallel on the
+ * common ForkJoinPool, each in its worker thread's SearchWorkspace. The snapshot is never
+ * modified, so other threads can keep querying it while paths are being found.
+ *
+ * @param <NodeType> is the data type stored at each graph node
+ */
+public class KShortestPaths<NodeType> {
+
+  /**
+   * A loopless path found by the search, stored as node ids and the weight of each edge.
+   */
+  protected static class Path implements Comparable<Path> {
+    public final int[] nodes;
+    public final double[] weights;
+    public final double cost;
+    public long order; // breaks ties between paths of equal cost in the order they were found
+
+    public Path(int[] nodes, double[] weights) {
+      this.nodes = nodes;
+      this.weights = weights;
+      double sum = 0;
+      for (double weight : weights)
+        sum += weight;
+      this.cost = sum;
+    }
+
+    public int compareTo(Path other) {
+      if (cost != other.cost)
+        return cost < other.cost ? -1 : +1;
+      return Long.compare(order, other.order);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Path && Arrays.equals(nodes, ((Path) other).nodes);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(nodes);
+    }
+  }
+
+  protected final CompactGraph<NodeType> graph;
+
+  /**
+   * Constructor for KShortestPaths.
+   *
+   * @param graph the snapshot to find paths in
+   */
+  public KShortestPaths(CompactGraph<NodeType> graph) {
+    this.graph = graph;
+  }
+
+  /**
+   * Finds up to k loopless paths from the node containing the start data to the node containing
+   * the end data, in order of increasing cost.
+   *
+   * @param start the data item in the starting node for the paths
+   * @param end   the data item in the destination node for the paths
+   * @param k     the largest number of paths to find
+   * @return the paths found, cheapest first, with fewer than k when fewer loopless paths exist
+   * @throws NoSuchElementException   when no path from start to end is found or when either start
+   *                                  or end data do not correspond to a graph node
+   * @throws IllegalArgumentException if k is less than 1
+   */
+  public List<ShortestRoute<NodeType>> find(NodeType start, NodeType end, int k) {
+    if (k < 1)
+      throw new IllegalArgumentException("k must be at least 1");
+    int source = graph.idOf(start);
+    int target = graph.idOf(end);
+    Path first = spurPath(source, target, new int[0], new int[0]);
+    if (first == null)
+      throw new NoSuchElementException("No path exists between the specified nodes");
+
+    List<Path> found = new ArrayList<>();
+    found.add(first);
+    PriorityQueue<Path> candidates = new PriorityQueue<>();
+    Set<Path> seen = new HashSet<>();
+    seen.add(first);
+    long order = 0;
+    while (found.size() < k) {
+      Path previous = found.get(found.size() - 1);
+      List<Path> spurs = IntStream.range(0, previous.nodes.length - 1).parallel()
+          .mapToObj(i -> deviation(found, previous, i)).collect(Collectors.toList());
+      for (Path spur : spurs) {
+        if (spur != null && seen.add(spur)) {
+          spur.order = order++;
+          candidates.add(spur);
+        }
+      }
+      if (candidates.isEmpty())
+        break;
+      found.add(candidates.poll());
+    }
+
+    List<ShortestRoute<NodeType>> routes = new ArrayList<>(found.size());
+    for (Path path : found) {
+      Object[] data = new Object[path.nodes.length];
+      for (int i = 0; i < data.length; i++)
+        data[i] = graph.dataOf(path.nodes[i]);
+      routes.add(new ShortestRoute<>(data, path.weights, path.cost));
+    }
+    return routes;
+  }
+
+  // Finds the cheapest path that follows previous up to its node at index spurIndex and then
+  // leaves it by an edge no path found so far takes from that same prefix, or null when none exists
+  private Path deviation(List<Path> found, Path previous, int spurIndex) {
+    int[] root = Arrays.copyOf(previous.nodes, spurIndex + 1);
+    int[] takenEdges = new int[found.size()];
+    int taken = 0;
+    for (Path path : found)
+      if (path.nodes.length > spurIndex + 1
+          && Arrays.equals(path.nodes, 0, spurIndex + 1, root, 0, spurIndex + 1))
+        takenEdges[taken++] = path.nodes[spurIndex + 1];
+
+    Path spur = spurPath(root[spurIndex], previous.nodes[previous.nodes.length - 1],
+        Arrays.copyOf(root, spurIndex), Arrays.copyOf(takenEdges, taken));
+    if (spur == null)
+      return null;
+
+    // join the root of the previous path onto the spur path
+    int[] nodes = Arrays.copyOf(root, spurIndex + spur.nodes.length);
+    System.arraycopy(spur.nodes, 0, nodes, spurIndex, spur.nodes.length);
+    double[] weights = Arrays.copyOf(previous.weights, nodes.length - 1);
+    System.arraycopy(spur.weights, 0, weights, spurIndex, spur.weights.length);
+    return new Path(nodes, weights);
+  }
+
+  // Runs Dijkstra's algorithm from source to target in the calling thread's workspace, without
+  // entering any blocked node or taking an edge from source to any node in skippedSuccessors
+  private Path spurPath(int source, int target, int[] blocked, int[] skippedSuccessors) {
+    SearchWorkspace workspace = SearchWorkspace.forward(graph.getNodeCount());
+    for (int node : blocked)
+      workspace.mark(node);
+    IndexedHeap queue = workspace.getQueue();
+    workspace.relax(source, 0, -1);
+    while (!queue.isEmpty()) {
+      int u = queue.poll();
+      if (u == target)
+        return tracePath(workspace, source, target);
+      double cost = workspace.costOf(u);
+      for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+        int v = graph.targets[e];
+        if (workspace.isMarked(v) || (u == source && contains(skippedSuccessors, v)))
+          continue;
+        workspace.relax(v, cost + graph.weights[e], u);
+      }
+    }
+    return null;
+  }
+
+  // Copies the settled path from source to target out of the workspace
+  private Path tracePath(SearchWorkspace workspace, int source, int target) {
+    int length = 1;
+    for (int v = target; v != source; v = workspace.predecessorOf(v))
+      length++;
+    int[] nodes = new int[length];
+    double[] weights = new double[length - 1];
+    int v = target;
+    for (int i = length - 1; i > 0; i--) {
+      int u = workspace.predecessorOf(v);
+      nodes[i] = v;
+      weights[i - 1] = edgeWeight(u, v);
+      v = u;
+    }
+    nodes[0] = source;
+    return new Path(nodes, weights);
+  }
+
+  // the weight of the edge from u to v
+  private double edgeWeight(int u, int v) {
+    for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++)
+      if (graph.targets[e] == v)
+        return graph.weights[e];
+    throw new NoSuchElementException("No edge between the specified nodes");
+  }
+
+  private static boolean contains(int[] values, int value) {
+    for (int candidate : values)
+      if (candidate == value)
+        return true;
+    return false;
+  }
+
+  // JUnit test methods
+
+  /**
+   * Checks that every loopless path from A to G in the lecture example is found in order of cost,
+   * and that asking for more paths than exist returns only those.
+   */
+  @Test
+  public void testAllPathsInCostOrder() {
+    KShortestPaths<String> search =
+        new KShortestPaths<>(DijkstraGraph.createGraphFromExample().freeze());
+    List<ShortestRoute<String>> routes = search.find("A", "G", 5);
+
+    Assertions.assertEquals(3, routes.size());
+    Assertions.assertEquals(Arrays.asList("A", "C", "D", "F", "G"), routes.get(0).getPath());
+    Assertions.assertEquals(9, routes.get(0).getCost());
+    Assertions.assertEquals(Arrays.asList("A", "B", "E", "F", "G"), routes.get(1).getPath());
+    Assertions.assertEquals(20, routes.get(1).getCost());
+    Assertions.assertEquals(Arrays.asList("A", "C", "D", "B", "E", "F", "G"),
+        routes.get(2).getPath());
+    Assertions.assertEquals(Arrays.asList(2.0, 5.0, 1.0, 10.0, 4.0, 2.0),
+        routes.get(2).getSegmentWeights());
+    Assertions.assertEquals(24, routes.get(2).getCost());
+  }
+
+  /**
+   * Checks the k shortest paths on a grid against every loopless path, which there are too many of
+   * to enumerate by hand.
+   */
+  @Test
+  public void testMatchesEnumeratedPaths() {
+    DijkstraGraph<Integer, Integer> graph = new DijkstraGraph<>(new HashtableMap<>());
+    int side = 3;
+    for (int i = 0; i < side * side; i++)
+      graph.insertNode(i);
+    for (int i = 0; i < side * side; i++) {
+      if (i % side < side - 1) {
+        graph.insertEdge(i, i + 1, 1 + i % 4);
+        graph.insertEdge(i + 1, i, 2 + i % 3);
+      }
+      if (i + side < side * side) {
+        graph.insertEdge(i, i + side, 1 + i % 5);
+        graph.insertEdge(i + side, i, 3);
+      }
+    }
+    CompactGraph<Integer> frozen = graph.freeze();
+    List<Double> costs = new ArrayList<>();
+    enumerate(frozen, 0, side * side - 1, new boolean[side * side], 0, costs);
+    costs.sort(null);
+
+    List<ShortestRoute<Integer>> routes = new KShortestPaths<>(frozen).find(0, side * side - 1, 10);
+    Assertions.assertEquals(10, routes.size());
+    for (int i = 0; i < routes.size(); i++) {
+      Assertions.assertEquals(costs.get(i), routes.get(i).getCost(), 1e-9);
+      Assertions.assertEquals(routes.get(i).getNodeCount(),
+          new HashSet<>(routes.get(i).getPath()).size(), "paths should not repeat nodes");
+    }
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> new KShortestPaths<>(frozen).find(0, 1, 0));
+  }
+
+  // adds the cost of every loopless path from u to target to costs
+  private void enumerate(CompactGraph<Integer> graph, int u, int target, boolean[] visited,
+      double cost, List<Double> costs) {
+    if (u == target) {
+      costs.add(cost);
+      return;
+    }
+    visited[u] = true;
+    for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++)
+      if (!visited[graph.targets[e]])
+        enumerate(graph, graph.targets[e], target, visited, cost + graph.weights[e], costs);
+    visited[u] = false;
+  }
+}
@@ -0,0 +1,369 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * This LandmarkIndex class answers shortest path queries on a CompactGraph with the ALT algorithm
+ * (A*, landmarks and the triangle inequality). A few landmark nodes are chosen up front, and the
+ * cost from every node to each landmark and from each landmark to every node is precomputed. By the
+ * triangle inequality, d(v, L) - d(t, L) and d(L, t) - d(L, v) are both lower bounds on the cost
+ * d(v, t), so the largest of them can steer an A* search toward t without giving up optimality.
+ *
+ * @param <NodeType> is the data type stored at each graph node
+ */
+public class LandmarkIndex<NodeType> {
+
+  /**
+   * The heuristics available for choosing landmarks.
+   */
+  public enum Selection {
+    FARTHEST, // repeatedly pick the node farthest from every landmark chosen so far
+    AVOID // repeatedly pick a leaf of a shortest path tree region that the bounds cover poorly
+  }
+
+  protected final CompactGraph<NodeType> graph;
+  protected final int[] landmarks;
+
+  // the cost from landmark i to node v is fromLandmark[v * landmarks.length + i], and the cost
+  // from node v to landmark i is toLandmark[v * landmarks.length + i], infinite when unreachable
+  protected final double[] fromLandmark;
+  protected final double[] toLandmark;
+
+  /**
+   * Chooses landmarks for the provided graph and precomputes the costs to and from each of them.
+   *
+   * @param graph         the snapshot to answer queries on
+   * @param landmarkCount the number of landmarks to choose, capped at the number of nodes
+   * @param selection     the heuristic used to choose landmarks
+   * @throws IllegalArgumentException if landmarkCount is negative
+   */
+  public LandmarkIndex(CompactGraph<NodeType> graph, int landmarkCount, Selection selection) {
+    if (landmarkCount < 0)
+      throw new IllegalArgumentException("landmarkCount cannot be negative");
+    this.graph = graph;
+    int nodeCount = graph.getNodeCount();
+    int k = Math.min(landmarkCount, nodeCount);
+    this.landmarks = new int[k];
+
+    List<double[]> from = new ArrayList<>();
+    List<double[]> to = new ArrayList<>();
+    int[] pred = new int[nodeCount];
+    Random random = new Random(nodeCount);
+    for (int i = 0; i < k; i++) {
+      int landmark = -1;
+      if (selection == Selection.AVOID && i > 0)
+        landmark = selectAvoid(from, to, random.nextInt(nodeCount));
+      if (landmark == -1)
+        landmark = selectFarthest(from, i == 0 ? random.nextInt(nodeCount) : -1);
+      landmarks[i] = landmark;
+      double[] fromCost = new double[nodeCount];
+      double[] toCost = new double[nodeCount];
+      graph.computeDistances(landmark, false, fromCost, pred);
+      graph.computeDistances(landmark, true, toCost, pred);
+      from.add(fromCost);
+      to.add(toCost);
+    }
+
+    // store the costs node by node so that each bound reads one contiguous run
+    this.fromLandmark = new double[nodeCount * k];
+    this.toLandmark = new double[nodeCount * k];
+    for (int i = 0; i < k; i++) {
+      for (int v = 0; v < nodeCount; v++) {
+        fromLandmark[v * k + i] = from.get(i)[v];
+        toLandmark[v * k + i] = to.get(i)[v];
+      }
+    }
+  }
+
+  /**
+   * Returns the snapshot this index answers queries on.
+   *
+   * @return the graph this index was built from
+   */
+  public CompactGraph<NodeType> getGraph() {
+    return graph;
+  }
+
+  /**
+   * Returns the data of the chosen landmarks, in the order they were chosen.
+   *
+   * @return list of the landmarks' node data
+   */
+  public List<NodeType> getLandmarks() {
+    List<NodeType> result = new ArrayList<>();
+    for (int landmark : landmarks)
+      result.add(graph.dataOf(landmark));
+    return result;
+  }
+
+  /**
+   * Returns the largest lower bound that the landmarks give on the cost of a path from v to t. The
+   * bound is infinite when the landmarks prove that t cannot be reached from v.
+   *
+   * @param v the id of the node the path starts from
+   * @param t the id of the node the path ends at
+   * @return a lower bound on the cost of the shortest path from v to t
+   */
+  public double lowerBound(int v, int t) {
+    int k = landmarks.length;
+    double bound = 0;
+    for (int i = 0; i < k; i++) {
+      // comparisons with NaN are false, so terms where both costs are infinite are ignored
+      double viaTo = toLandmark[v * k + i] - toLandmark[t * k + i];
+      double viaFrom = fromLandmark[t * k + i] - fromLandmark[v * k + i];
+      if (viaTo > bound)
+        bound = viaTo;
+      if (viaFrom > bound)
+        bound = viaFrom;
+    }
+    return bound;
+  }
+
+  /**
+   * Runs A* from source until target is settled, using lowerBound(v, target) as the estimate of
+   * the remaining cost. The search runs in a freshly checked out workspace, which afterward holds
+   * the cost of every reached node and the id of the node it was reached from (-1 for the source).
+   * Only the nodes the search reaches are written, so a search that stays near the path between
+   * source and target costs nothing for the rest of the graph.
+   *
+   * @param source    the id of the starting node
+   * @param target    the id of the destination node
+   * @param workspace freshly checked out workspace for getNodeCount() nodes
+   * @return the number of nodes settled by the search
+   * @throws NoSuchElementException when no path from source to target is found
+   */
+  public int computeShortestPath(int source, int target, SearchWorkspace workspace) {
+    IndexedHeap queue = workspace.getQueue();
+    workspace.label(source, 0, -1);
+    queue.insertOrDecrease(source, lowerBound(source, target));
+
+    int settled = 0;
+    while (!queue.isEmpty()) {
+      int u = queue.poll();
+      settled++;
+      if (u == target)
+        return settled;
+
+      double cost = workspace.costOf(u);
+      for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+        int v = graph.targets[e];
+        double newCost = cost + graph.weights[e];
+        if (newCost < workspace.costOf(v)) {
+          // the estimate for each node is computed once, when the node is first reached
+          double estimate = workspace.estimateOf(v);
+          if (Double.isNaN(estimate)) {
+            estimate = lowerBound(v, target);
+            workspace.recordEstimate(v, estimate);
+          }
+          // nodes the landmarks prove cannot reach the target are never queued
+          if (estimate == Double.POSITIVE_INFINITY)
+            continue;
+          workspace.label(v, newCost, u);
+          queue.insertOrDecrease(v, newCost + estimate);
+        }
+      }
+    }
+    throw new NoSuchElementException("No path exists between the specified nodes");
+  }
+
+  /**
+   * Returns the list of data values from nodes along the shortest path from the node with the
+   * provided start value through the node with the provided end value.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return list of data item from node along this shortest path
+   * @throws NoSuchElementException when no path from start to end is found or when either start or
+   *                                end data do not correspond to a graph node
+   */
+  public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+    int target = graph.idOf(end);
+    SearchWorkspace workspace = SearchWorkspace.forward(graph.getNodeCount());
+    computeShortestPath(graph.idOf(start), target, workspace);
+
+    List<NodeType> path = new LinkedList<>();
+    for (int id = target; id != -1; id = workspace.predecessorOf(id))
+      path.add(0, graph.dataOf(id));
+    return path;
+  }
+
+  /**
+   * Returns the cost of the shortest path from the node containing the start data to the node
+   * containing the end data.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end   the data item in the destination node for the path
+   * @return the cost of the shortest path between these nodes
+   * @throws NoSuchElementException when no path from start to end is found or when either start or
+   *                                end data do not correspond to a graph node
+   */
+  public double shortestPathCost(NodeType start, NodeType end) {
+    int target = graph.idOf(end);
+    SearchWorkspace workspace = SearchWorkspace.forward(graph.getNodeCount());
+    computeShortestPath(graph.idOf(start), target, workspace);
+    return workspace.costOf(target);
+  }
+
+  // Picks the node whose cost from the nearest chosen landmark is largest, treating nodes that no
+  // landmark reaches as farthest of all. With no landmarks chosen yet, distances from seed are used.
+  private int selectFarthest(List<double[]> from, int seed) {
+    int nodeCount = graph.getNodeCount();
+    double[] nearest = new double[nodeCount];
+    if (from.isEmpty()) {
+      graph.computeDistances(seed, false, nearest, new int[nodeCount]);
+      // only consider nodes the seed reaches, so the first landmark lies in the seed's component
+      for (int v = 0; v < nodeCount; v++)
+        if (nearest[v] == Double.POSITIVE_INFINITY)
+          nearest[v] = -1;
+    } else {
+      Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+      for (double[] cost : from)
+        for (int v = 0; v < nodeCount; v++)
+          nearest[v] = Math.min(nearest[v], cost[v]);
+    }
+    int best = 0;
+    for (int v = 1; v < nodeCount; v++)
+      if (nearest[v] > nearest[best])
+        best = v;
+    return best;
+  }
+
+  // The avoid heuristic: grow a shortest path tree from root, weigh each node by how far its true
+  // cost from root exceeds the current lower bound, and descend from root into the heaviest subtree
+  // that holds no landmark. The leaf reached is a node whose region the current landmarks cover
+  // poorly. Returns -1 when every region is already covered.
+  private int selectAvoid(List<double[]> from, List<double[]> to, int root) {
+    int nodeCount = graph.getNodeCount();
+    double[] dist = new double[nodeCount];
+    int[] pred = new int[nodeCount];
+    graph.computeDistances(root, false, dist, pred);
+
+    boolean[] covered = new boolean[nodeCount];
+    for (int i = 0; i < from.size(); i++)
+      covered[landmarks[i]] = true;
+
+    // weight each reached node by the gap between its cost and the current bound
+    double[] size = new double[nodeCount];
+    List<Integer> reached = new ArrayList<>();
+    for (int v = 0; v < nodeCount; v++) {
+      if (dist[v] == Double.POSITIVE_INFINITY)
+        continue;
+      reached.add(v);
+      double bound = 0;
+      for (int i = 0; i < from.size(); i++) {
+        double viaTo = to.get(i)[root] - to.get(i)[v];
+        double viaFrom = from.get(i)[v] - from.get(i)[root];
+        if (viaTo > bound)
+          bound = viaTo;
+        if (viaFrom > bound)
+          bound = viaFrom;
+      }
+      size[v] = Math.max(0, dist[v] - bound);
+    }
+
+    // add each subtree into its parent, children before parents, and drop covered subtrees
+    reached.sort((a, b) -> Double.compare(dist[b], dist[a]));
+    for (int v : reached) {
+      if (v == root)
+        continue;
+      if (covered[v])
+        covered[pred[v]] = true;
+      else
+        size[pred[v]] += size[v];
+    }
+    if (covered[root])
+      return -1;
+
+    // descend into the heaviest child until reaching a leaf
+    int current = root;
+    while (true) {
+      int heaviest = -1;
+      for (int e = graph.offsets[current]; e < graph.offsets[current + 1]; e++) {
+        int child = graph.targets[e];
+        if (child != root && pred[child] == current && !covered[child]
+            && (heaviest == -1 || size[child] > size[heaviest]))
+          heaviest = child;
+      }
+      if (heaviest == -1)
+        return current;
+      current = heaviest;
+    }
+  }
+
+  // JUnit test methods
+
+  /**
+   * Checks that ALT finds the same costs as Dijkstra's algorithm on a grid for both landmark
+   * heuristics, while settling fewer nodes in total.
+   */
+  @Test
+  public void testAltMatchesDijkstraAndSettlesLess() {
+    CompactGraph<String> grid = createGrid(30, new Random(17));
+    int nodeCount = grid.getNodeCount();
+    double[] expected = new double[nodeCount];
+    int[] pred = new int[nodeCount];
+    for (Selection selection : Selection.values()) {
+      LandmarkIndex<String> index = new LandmarkIndex<>(grid, 6, selection);
+      Assertions.assertEquals(6, index.getLandmarks().size());
+      Random random = new Random(3);
+      long dijkstraSettled = 0;
+      long altSettled = 0;
+      for (int query = 0; query < 200; query++) {
+        int source = random.nextInt(nodeCount);
+        int target = random.nextInt(nodeCount);
+        dijkstraSettled += grid.computeShortestPath(source, target, expected, pred);
+        SearchWorkspace workspace = SearchWorkspace.forward(nodeCount);
+        altSettled += index.computeShortestPath(source, target, workspace);
+        Assertions.assertEquals(expected[target], workspace.costOf(target), 1e-9);
+        Assertions.assertTrue(index.lowerBound(source, target) <= expected[target] + 1e-9);
+      }
+      Assertions.assertTrue(altSettled < dijkstraSettled,
+          selection + " settled " + altSettled + " nodes, Dijkstra settled " + dijkstraSettled);
+    }
+  }
+
+  /**
+   * Checks that unreachable targets are reported with NoSuchElementException, as in DijkstraGraph.
+   */
+  @Test
+  public void testNoPathExists() {
+    DijkstraGraph<String, Integer> graph = new DijkstraGraph<>(new PlaceholderMap<>());
+    graph.insertNode("A");
+    graph.insertNode("B");
+    graph.insertNode("C");
+    graph.insertEdge("A", "B", 3);
+    graph.insertEdge("B", "C", 4);
+    LandmarkIndex<String> index = new LandmarkIndex<>(graph.freeze(), 2, Selection.AVOID);
+
+    Assertions.assertEquals(7, index.shortestPathCost("A", "C"));
+    Assertions.assertEquals(Arrays.asList("A", "B", "C"), index.shortestPathData("A", "C"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> index.shortestPathCost("C", "A"));
+  }
+
+  // Utility method to create a width x width grid with random weights in both directions
+  private CompactGraph<String> createGrid(int width, Random random) {
+    DijkstraGraph<String, Double> graph = new DijkstraGraph<>(new HashtableMap<>());
+    for (int row = 0; row < width; row++)
+      for (int col = 0; col < width; col++)
+        graph.insertNode(row + "," + col);
+    for (int row = 0; row < width; row++) {
+      for (int col = 0; col < width; col++) {
+        if (col + 1 < width) {
+          graph.insertEdge(row + "," + col, row + "," + (col + 1), 1 + random.nextDouble());
+          graph.insertEdge(row + "," + (col + 1), row + "," + col, 1 + random.nextDouble());
+        }
+        if (row + 1 < width) {
+          graph.insertEdge(row + "," + col, (row + 1) + "," + col, 1 + random.nextDouble());
+          graph.insertEdge((row + 1) + "," + col, row + "," + col, 1 + random.nextDouble());
+        }
+      }
+    }
+    return graph.freeze();
+  }
+}
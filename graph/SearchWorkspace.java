@@ -0,0 +1,289 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * This SearchWorkspace class holds the per-node state of one shortest path search: the cost and
+ * predecessor of every node id reached so far, a mark and an estimate of the remaining cost for
+ * every node id, and the queue of nodes waiting to be settled. Instead of clearing its arrays
+ * between searches, a workspace stamps every entry it writes with the current epoch and treats
+ * entries with an older stamp as unset, so starting a new search only increments the epoch and
+ * clears the queue.
+ *
+ * Each thread checks out its own workspaces through forward() and backward(), which keeps searches
+ * on different threads independent and lets repeated searches on one thread run without allocating.
+ * A workspace is only valid until the next search on the same thread checks it out again, so
+ * results that must outlive the search need to be copied out of it.
+ */
+public class SearchWorkspace {
+
+  private static final ThreadLocal<SearchWorkspace> FORWARD =
+      ThreadLocal.withInitial(SearchWorkspace::new);
+  private static final ThreadLocal<SearchWorkspace> BACKWARD =
+      ThreadLocal.withInitial(SearchWorkspace::new);
+
+  private double[] cost = new double[0];
+  private int[] predecessor = new int[0];
+  private int[] reached = new int[0]; // epoch in which each node's cost was last set
+  private int[] marked = new int[0]; // epoch in which each node was last marked
+  private double[] estimate = new double[0];
+  private int[] estimated = new int[0]; // epoch in which each node's estimate was last recorded
+  private int epoch = 0;
+  private final IndexedHeap queue = new IndexedHeap();
+
+  /**
+   * Checks out the calling thread's workspace for a search, or for the forward half of a
+   * bidirectional search, over a graph with the provided number of node ids.
+   *
+   * @param nodeCount the number of node ids the search may reach
+   * @return the calling thread's forward workspace, with every node unreached and unmarked
+   */
+  public static SearchWorkspace forward(int nodeCount) {
+    SearchWorkspace workspace = FORWARD.get();
+    workspace.reset(nodeCount);
+    return workspace;
+  }
+
+  /**
+   * Checks out the calling thread's workspace for the backward half of a bidirectional search over
+   * a graph with the provided number of node ids.
+   *
+   * @param nodeCount the number of node ids the search may reach
+   * @return the calling thread's backward workspace, with every node unreached and unmarked
+   */
+  public static SearchWorkspace backward(int nodeCount) {
+    SearchWorkspace workspace = BACKWARD.get();
+    workspace.reset(nodeCount);
+    return workspace;
+  }
+
+  /**
+   * Prepares this workspace for a new search, growing its arrays when the graph has more nodes than
+   * any graph it searched before.
+   *
+   * @param nodeCount the number of node ids the search may reach
+   */
+  public void reset(int nodeCount) {
+    if (cost.length < nodeCount) {
+      int capacity = Math.max(nodeCount, cost.length * 2);
+      cost = new double[capacity];
+      predecessor = new int[capacity];
+      reached = new int[capacity];
+      marked = new int[capacity];
+      estimate = new double[capacity];
+      estimated = new int[capacity];
+      epoch = 0;
+    }
+    if (epoch == Integer.MAX_VALUE) {
+      // start the stamps over rather than let an old stamp match a wrapped epoch
+      Arrays.fill(reached, 0);
+      Arrays.fill(marked, 0);
+      Arrays.fill(estimated, 0);
+      epoch = 0;
+    }
+    epoch++;
+    queue.clear();
+  }
+
+  /**
+   * Returns the queue of node ids waiting to be settled, keyed by their cost.
+   *
+   * @return the queue of this search
+   */
+  public IndexedHeap getQueue() {
+    return queue;
+  }
+
+  /**
+   * Returns the cost recorded for a node in this search.
+   *
+   * @param id the node id
+   * @return the cost of that node, or positive infinity when it has not been reached
+   */
+  public double costOf(int id) {
+    return reached[id] == epoch ? cost[id] : Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Returns the predecessor recorded for a node in this search.
+   *
+   * @param id the id of a reached node
+   * @return the id of the node it was reached from, or -1 for the node the search started from
+   */
+  public int predecessorOf(int id) {
+    return predecessor[id];
+  }
+
+  /**
+   * Records the cost and predecessor of a node without queueing it.
+   *
+   * @param id             the node id
+   * @param newCost        the cost of the node
+   * @param newPredecessor the id of the node it is reached from, or -1 for none
+   */
+  public void label(int id, double newCost, int newPredecessor) {
+    cost[id] = newCost;
+    predecessor[id] = newPredecessor;
+    reached[id] = epoch;
+  }
+
+  /**
+   * Records the cost and predecessor of a node and queues it with that cost, when the cost is lower
+   * than the cost already recorded for it.
+   *
+   * @param id             the node id
+   * @param newCost        the cost of reaching the node through newPredecessor
+   * @param newPredecessor the id of the node it is reached from, or -1 for none
+   * @return true if the node's cost was lowered, and false otherwise
+   */
+  public boolean relax(int id, double newCost, int newPredecessor) {
+    if (newCost >= costOf(id))
+      return false;
+    label(id, newCost, newPredecessor);
+    queue.insertOrDecrease(id, newCost);
+    return true;
+  }
+
+  /**
+   * Marks a node for the rest of this search.
+   *
+   * @param id the node id
+   * @return true if the node was not marked before, and false otherwise
+   */
+  public boolean mark(int id) {
+    if (marked[id] == epoch)
+      return false;
+    marked[id] = epoch;
+    return true;
+  }
+
+  /**
+   * Checks whether a node has been marked in this search.
+   *
+   * @param id the node id
+   * @return true if the node is marked, and false otherwise
+   */
+  public boolean isMarked(int id) {
+    return marked[id] == epoch;
+  }
+
+  /**
+   * Returns the estimate of the remaining cost recorded for a node in this search, such as the
+   * lower bound that guides an A* search.
+   *
+   * @param id the node id
+   * @return the estimate recorded for that node, or NaN when none has been recorded
+   */
+  public double estimateOf(int id) {
+    return estimated[id] == epoch ? estimate[id] : Double.NaN;
+  }
+
+  /**
+   * Records an estimate of the remaining cost for a node, so that it is computed once per search.
+   *
+   * @param id    the node id
+   * @param value the estimate for that node
+   */
+  public void recordEstimate(int id, double value) {
+    estimate[id] = value;
+    estimated[id] = epoch;
+  }
+
+  // JUnit test methods
+
+  /**
+   * Checks that resetting a workspace forgets every cost, mark and estimate from the previous
+   * search.
+   */
+  @Test
+  public void testResetForgetsPreviousSearch() {
+    SearchWorkspace workspace = new SearchWorkspace();
+    workspace.reset(4);
+    Assertions.assertTrue(workspace.relax(2, 5, 1));
+    Assertions.assertFalse(workspace.relax(2, 7, 0));
+    Assertions.assertTrue(workspace.mark(3));
+    Assertions.assertFalse(workspace.mark(3));
+    Assertions.assertTrue(Double.isNaN(workspace.estimateOf(1)));
+    workspace.recordEstimate(1, 2.5);
+    Assertions.assertEquals(2.5, workspace.estimateOf(1));
+    Assertions.assertEquals(5, workspace.costOf(2));
+    Assertions.assertEquals(1, workspace.predecessorOf(2));
+
+    workspace.reset(8);
+    Assertions.assertEquals(Double.POSITIVE_INFINITY, workspace.costOf(2));
+    Assertions.assertFalse(workspace.isMarked(3));
+    Assertions.assertTrue(Double.isNaN(workspace.estimateOf(1)));
+    Assertions.assertTrue(workspace.getQueue().isEmpty());
+    Assertions.assertTrue(workspace.relax(7, 1, -1));
+  }
+
+  /**
+   * Checks that repeated cost queries, on a snapshot, through DijkstraGraph's shortestPathCost(),
+   * and guided by landmarks, allocate nothing once the calling thread's workspace has grown to fit
+   * the graph. The test is skipped on JVMs that cannot count allocated bytes.
+   */
+  @Test
+  public void testQueriesDoNotAllocate() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (!(bean instanceof com.sun.management.ThreadMXBean))
+      return;
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+    if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled())
+      return;
+
+    // an open addressing node map, since chained buckets allocate an iterator for each lookup
+    DijkstraGraph<Integer, Integer> graph = new DijkstraGraph<>(new OpenHashtableMap<>());
+    for (int i = 0; i < 100; i++)
+      graph.insertNode(i);
+    for (int i = 0; i < 100; i++) {
+      graph.insertEdge(i, (i + 1) % 100, 1 + i % 7);
+      graph.insertEdge(i, (i * 7 + 3) % 100, 5 + i % 3);
+    }
+    CompactGraph<Integer> frozen = graph.snapshot();
+    LandmarkIndex<Integer> landmarks =
+        new LandmarkIndex<>(frozen, 4, LandmarkIndex.Selection.AVOID);
+    double expected = frozen.computeCost(0, 50);
+
+    // the first queries grow the workspace and load every class the search uses; node data below
+    // 128 are cached Integers, so passing them to the graph does not allocate either
+    for (int i = 0; i < 100; i++) {
+      frozen.computeCost(i, 99 - i);
+      graph.shortestPathCost(i, 99 - i);
+      landmarks.computeShortestPath(i, 99 - i, SearchWorkspace.forward(100));
+    }
+    long threadId = Thread.currentThread().getId();
+    long before = threads.getThreadAllocatedBytes(threadId);
+    double total = 0;
+    for (int i = 0; i < 1000; i++)
+      total += frozen.computeCost(i % 100, (i * 31) % 100);
+    long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+    before = threads.getThreadAllocatedBytes(threadId);
+    double graphTotal = 0;
+    for (int i = 0; i < 1000; i++)
+      graphTotal += graph.shortestPathCost(i % 100, (i * 31) % 100);
+    long graphAllocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+    before = threads.getThreadAllocatedBytes(threadId);
+    double landmarkTotal = 0;
+    for (int i = 0; i < 1000; i++) {
+      SearchWorkspace workspace = SearchWorkspace.forward(100);
+      landmarks.computeShortestPath(i % 100, (i * 31) % 100, workspace);
+      landmarkTotal += workspace.costOf((i * 31) % 100);
+    }
+    long landmarkAllocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+    Assertions.assertEquals(expected, frozen.computeCost(0, 50));
+    Assertions.assertEquals(total, graphTotal);
+    Assertions.assertEquals(total, landmarkTotal, 1e-9);
+    Assertions.assertTrue(total > 0);
+    // leave room for the allocation counter itself, but far less than one array per query
+    Assertions.assertTrue(allocated < 1024, "1000 queries allocated " + allocated + " bytes");
+    Assertions.assertTrue(graphAllocated < 1024,
+        "1000 graph queries allocated " + graphAllocated + " bytes");
+    Assertions.assertTrue(landmarkAllocated < 1024,
+        "1000 landmark queries allocated " + landmarkAllocated + " bytes");
+  }
+}
@@ -0,0 +1,145 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This ShortestPathTree class holds the result of one full run of Dijkstra's algorithm: the cost of
+ * the shortest path from a single source node to every node it reaches, together with the node
+ * before each one on that path. It is produced by DijkstraGraph.shortestPathTree(), and answers any
+ * number of one-to-many questions without searching again.
+ *
+ * @param <NodeType> is the data type stored at each graph node
+ */
+public class ShortestPathTree<NodeType> {
+
+  protected final NodeType source;
+  // node data, costs, and predecessor ids, indexed by the node ids at the time of the search
+  protected final List<NodeType> data;
+  protected final double[] cost;
+  protected final int[] predecessor;
+  // the id of every reached node
+  protected final ObjectIntMap<NodeType> ids;
+
+  /**
+   * Constructor for ShortestPathTree, normally called through DijkstraGraph.shortestPathTree().
+   *
+   * @param source      the data item in the node the paths start from
+   * @param data        the data item of each node id
+   * @param cost        the cost of each node id, infinite when it was not reached
+   * @param predecessor the id of the node before each reached node, -1 for the source
+   */
+  protected ShortestPathTree(NodeType source, List<NodeType> data, double[] cost,
+      int[] predecessor) {
+    this.source = source;
+    this.data = data;
+    this.cost = cost;
+    this.predecessor = predecessor;
+    this.ids = new ObjectIntMap<>(data.size() * 5 / 4 + 1);
+    for (int id = 0; id < data.size(); id++)
+      if (cost[id] != Double.POSITIVE_INFINITY)
+        ids.put(data.get(id), id);
+  }
+
+  /**
+   * Returns the data item in the node every path starts from.
+   *
+   * @return the source of this tree
+   */
+  public NodeType getSource() {
+    return source;
+  }
+
+  /**
+   * Returns the number of nodes reached from the source, including the source itself.
+   *
+   * @return the number of nodes in this tree
+   */
+  public int getReachableCount() {
+    return ids.getSize();
+  }
+
+  /**
+   * Checks whether a path from the source to the node containing end was found.
+   *
+   * @param end the data item in the destination node
+   * @return true if end was reached from the source, and false otherwise
+   */
+  public boolean reaches(NodeType end) {
+    return ids.containsKey(end);
+  }
+
+  /**
+   * Returns the cost of the shortest path from the source to the node containing end.
+   *
+   * @param end the data item in the destination node for the path
+   * @return the cost of the shortest path to that node
+   * @throws NoSuchElementException when end was not reached from the source
+   */
+  public double costTo(NodeType end) {
+    int id = ids.getOrDefault(end, -1);
+    if (id == -1)
+      throw new NoSuchElementException("No path exists between the specified nodes");
+    return cost[id];
+  }
+
+  /**
+   * Returns the list of data values from nodes along the shortest path from the source through the
+   * node containing end. The path is rebuilt from the predecessor of each node on every call.
+   *
+   * @param end the data item in the destination node for the path
+   * @return list of data item from node along this shortest path
+   * @throws NoSuchElementException when end was not reached from the source
+   */
+  public List<NodeType> pathTo(NodeType end) {
+    int endId = ids.getOrDefault(end, -1);
+    if (endId == -1)
+      throw new NoSuchElementException("No path exists between the specified nodes");
+    List<NodeType> path = new LinkedList<>();
+    for (int id = endId; id != -1; id = predecessor[id])
+      path.add(0, data.get(id));
+    return path;
+  }
+
+  // JUnit test methods
+
+  /**
+   * Checks that one tree agrees with a separate shortest path query to every node in the lecture
+   * example, and reports the nodes it cannot reach.
+   */
+  @Test
+  public void testTreeMatchesSingleQueries() {
+    DijkstraGraph<String, Integer> graph = DijkstraGraph.createGraphFromExample();
+    ShortestPathTree<String> tree = graph.shortestPathTree("A");
+
+    Assertions.assertEquals("A", tree.getSource());
+    Assertions.assertEquals(8, tree.getReachableCount());
+    for (String end : new String[] {"A", "B", "C", "D", "E", "F", "G", "H"}) {
+      Assertions.assertEquals(graph.shortestPathCost("A", end), tree.costTo(end));
+      Assertions.assertEquals(graph.shortestPathData("A", end), tree.pathTo(end));
+    }
+    Assertions.assertEquals(Arrays.asList("A"), tree.pathTo("A"));
+
+    ShortestPathTree<String> fromE = graph.shortestPathTree("E");
+    Assertions.assertFalse(fromE.reaches("C"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> fromE.costTo("C"));
+    Assertions.assertThrows(NoSuchElementException.class, () -> fromE.pathTo("Z"));
+  }
+
+  /**
+   * Checks that a tree keeps answering from the graph as it was when the tree was computed.
+   */
+  @Test
+  public void testTreeIgnoresLaterChanges() {
+    DijkstraGraph<String, Integer> graph = DijkstraGraph.createGraphFromExample();
+    ShortestPathTree<String> tree = graph.shortestPathTree("A");
+    graph.removeNode("D");
+    graph.insertEdge("A", "H", 1);
+
+    Assertions.assertEquals(9, tree.costTo("G"));
+    Assertions.assertEquals(Arrays.asList("A", "C", "D", "F", "G", "H"), tree.pathTo("H"));
+  }
+}
@@ -0,0 +1,111 @@
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * This ShortestRoute class holds everything one shortest path search finds between two nodes: the
+ * data of each node along the path, the weight of each edge between consecutive nodes, and the
+ * total cost. The values are stored in arrays, and the lists returned by getPath() and
+ * getSegmentWeights() are read-only views of those arrays rather than copies.
+ *
+ * @param <NodeType> is the data type stored at each graph node
+ */
+public class ShortestRoute<NodeType> {
+
+  // the data of each node along the path, from start to end
+  protected final Object[] nodes;
+  // segmentWeights[i] is the weight of the edge from nodes[i] to nodes[i + 1]
+  protected final double[] segmentWeights;
+  protected final double cost;
+
+  /**
+   * Constructor for ShortestRoute, normally called through GraphADT.shortestRoute().
+   *
+   * @param nodes          the data of each node along the path, from start to end
+   * @param segmentWeights the weight of each edge along the path, one fewer than the nodes
+   * @param cost           the total cost of the path
+   */
+  protected ShortestRoute(Object[] nodes, double[] segmentWeights, double cost) {
+    this.nodes = nodes;
+    this.segmentWeights = segmentWeights;
+    this.cost = cost;
+  }
+
+  /**
+   * Returns the number of nodes along the path, including the start and end nodes.
+   *
+   * @return the number of nodes in this route
+   */
+  public int getNodeCount() {
+    return nodes.length;
+  }
+
+  /**
+   * Returns the data of one node along the path.
+   *
+   * @param index the position of the node, where 0 is the start node
+   * @return the data item in that node
+   * @throws IndexOutOfBoundsException if index is not between 0 and getNodeCount() - 1
+   */
+  @SuppressWarnings("unchecked")
+  public NodeType getNode(int index) {
+    return (NodeType) nodes[index];
+  }
+
+  /**
+   * Returns the weight of one edge along the path.
+   *
+   * @param index the position of the edge, where 0 is the edge leaving the start node
+   * @return the weight of the edge from getNode(index) to getNode(index + 1)
+   * @throws IndexOutOfBoundsException if index is not between 0 and getNodeCount() - 2
+   */
+  public double getSegmentWeight(int index) {
+    return segmentWeights[index];
+  }
+
+  /**
+   * Returns the total cost of the path, the sum of its segment weights.
+   *
+   * @return the cost of this route
+   */
+  public double getCost() {
+    return cost;
+  }
+
+  /**
+   * Returns a read-only list view of the data of each node along the path.
+   *
+   * @return list of data item from node along this shortest path
+   */
+  public List<NodeType> getPath() {
+    return new AbstractList<NodeType>() {
+      @Override
+      public NodeType get(int index) {
+        return getNode(index);
+      }
+
+      @Override
+      public int size() {
+        return nodes.length;
+      }
+    };
+  }
+
+  /**
+   * Returns a read-only list view of the weight of each edge along the path.
+   *
+   * @return list of edge weights along this shortest path
+   */
+  public List<Double> getSegmentWeights() {
+    return new AbstractList<Double>() {
+      @Override
+      public Double get(int index) {
+        return segmentWeights[index];
+      }
+
+      @Override
+      public int size() {
+        return segmentWeights.length;
+      }
+    };
+  }
+}
@@ -0,0 +1,202 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * This VersionedGraph class lets any number of threads query a graph while other threads change
+ * it. Changes are applied to a private DijkstraGraph by one writer at a time, and after each change
+ * (or batch of changes) the writer publishes a new immutable CompactGraph snapshot with a single
+ * volatile write. Readers pin the latest snapshot without taking any lock and run all of their
+ * queries on it, so a query never sees a half-applied change, and a writer never waits for
+ * readers. Each pinned snapshot stays valid for as long as a reader holds it, and becomes garbage
+ * once no reader references it.
+ *
+ * @param <NodeType> is the data type stored at each graph node
+ * @param <EdgeType> is the data type stored at each graph edge as a weight
+ */
+public class VersionedGraph<NodeType, EdgeType extends Number> {
+
+  private final DijkstraGraph<NodeType, EdgeType> graph; // only read or changed under writeLock
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private volatile CompactGraph<NodeType> published;
+
+  /**
+   * Constructor that sets the map that the graph uses for its node lookups.
+   *
+   * @param map the map that the graph uses to map a data object to the node object it is stored in
+   */
+  public VersionedGraph(MapADT<NodeType, BaseGraph<NodeType, EdgeType>.Node> map) {
+    this.graph = new DijkstraGraph<>(map);
+    this.published = graph.snapshot();
+  }
+
+  /**
+   * Returns the most recently published snapshot. Every query on it answers from the same version
+   * of the graph, however the graph changes while the queries run.
+   *
+   * @return the current snapshot of this graph
+   */
+  public CompactGraph<NodeType> pin() {
+    return published;
+  }
+
+  /**
+   * Returns the version of the most recently published snapshot.
+   *
+   * @return the version readers currently pin
+   */
+  public long getVersion() {
+    return published.getVersion();
+  }
+
+  /**
+   * Applies a batch of changes and publishes them as a single new version, so that no reader can
+   * pin a snapshot with only some of them. If the changes throw an exception, the ones made before
+   * it are still published.
+   *
+   * @param changes the changes to apply to the graph
+   */
+  public void update(Consumer<? super GraphADT<NodeType, EdgeType>> changes) {
+    writeLock.lock();
+    try {
+      changes.accept(graph);
+    } finally {
+      published = graph.snapshot();
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Insert a new node into the graph and publish the new version.
+   *
+   * @param data is the data item stored in the new node
+   * @return true if the data is unique and can be inserted into a new node,
+   *         or false if this data is already in the graph
+   * @throws NullPointerException if data is null
+   */
+  public boolean insertNode(NodeType data) {
+    boolean[] changed = new boolean[1];
+    update(graph -> changed[0] = graph.insertNode(data));
+    return changed[0];
+  }
+
+  /**
+   * Remove a node and its edges from the graph and publish the new version.
+   *
+   * @param data is the data item stored in the node to be removed
+   * @return true if a vertex with data is found and removed, or
+   *         false if that data value is not found in the graph
+   * @throws NullPointerException if data is null
+   */
+  public boolean removeNode(NodeType data) {
+    boolean[] changed = new boolean[1];
+    update(graph -> changed[0] = graph.removeNode(data));
+    return changed[0];
+  }
+
+  /**
+   * Insert or update a directed edge and publish the new version.
+   *
+   * @param pred   is the data item contained in the new edge's predecesor node
+   * @param succ   is the data item contained in the new edge's successor node
+   * @param weight is the non-negative data item stored in the new edge
+   * @return true if the edge could be inserted or updated, or
+   *         false if the pred or succ data are not found in any graph nodes
+   */
+  public boolean insertEdge(NodeType pred, NodeType succ, EdgeType weight) {
+    boolean[] changed = new boolean[1];
+    update(graph -> changed[0] = graph.insertEdge(pred, succ, weight));
+    return changed[0];
+  }
+
+  /**
+   * Remove a directed edge and publish the new version.
+   *
+   * @param pred the data item contained in the source node for the edge
+   * @param succ the data item contained in the target node for the edge
+   * @return true if the edge could be removed, or
+   *         false if such an edge is not found in the graph
+   */
+  public boolean removeEdge(NodeType pred, NodeType succ) {
+    boolean[] changed = new boolean[1];
+    update(graph -> changed[0] = graph.removeEdge(pred, succ));
+    return changed[0];
+  }
+
+  // JUnit test methods
+
+  /**
+   * Checks that a pinned snapshot keeps answering from its own version after later changes, and
+   * that each change is published as a new version.
+   */
+  @Test
+  public void testPinnedSnapshotIsIsolated() {
+    VersionedGraph<String, Integer> graph = new VersionedGraph<>(new HashtableMap<>());
+    graph.update(g -> {
+      g.insertNode("A");
+      g.insertNode("B");
+      g.insertEdge("A", "B", 5);
+    });
+    CompactGraph<String> pinned = graph.pin();
+    long version = graph.getVersion();
+
+    Assertions.assertTrue(graph.insertEdge("A", "B", 2));
+    Assertions.assertTrue(graph.removeNode("B"));
+    Assertions.assertFalse(graph.removeEdge("A", "B"));
+    Assertions.assertEquals(5, pinned.shortestPathCost("A", "B"));
+    Assertions.assertTrue(graph.getVersion() > version);
+    Assertions.assertFalse(graph.pin().containsNode("B"));
+  }
+
+  /**
+   * Checks that readers querying while a writer keeps changing two edges in one batch always see
+   * both changes or neither, so the cost of the path over both edges never changes.
+   */
+  @Test
+  public void testReadersNeverSeePartialUpdates() throws InterruptedException {
+    VersionedGraph<String, Integer> graph = new VersionedGraph<>(new HashtableMap<>());
+    graph.update(g -> {
+      g.insertNode("A");
+      g.insertNode("B");
+      g.insertNode("C");
+      g.insertEdge("A", "B", 5);
+      g.insertEdge("B", "C", 5);
+    });
+
+    AtomicBoolean done = new AtomicBoolean(false);
+    AtomicInteger errors = new AtomicInteger();
+    AtomicInteger queries = new AtomicInteger();
+    List<Thread> readers = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      Thread reader = new Thread(() -> {
+        while (!done.get()) {
+          CompactGraph<String> pinned = graph.pin();
+          if (pinned.shortestPathCost("A", "C") != 10)
+            errors.incrementAndGet();
+          queries.incrementAndGet();
+        }
+      });
+      readers.add(reader);
+      reader.start();
+    }
+    for (int i = 0; i < 2000; i++) {
+      int weight = i % 11;
+      graph.update(g -> {
+        g.insertEdge("A", "B", weight);
+        g.insertEdge("B", "C", 10 - weight);
+      });
+    }
+    done.set(true);
+    for (Thread reader : readers)
+      reader.join();
+
+    Assertions.assertEquals(0, errors.get());
+    Assertions.assertTrue(queries.get() > 0);
+  }
+}